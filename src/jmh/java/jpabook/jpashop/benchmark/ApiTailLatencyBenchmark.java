@@ -0,0 +1,91 @@
+package jpabook.jpashop.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 혼합 부하에서 가벼운 API의 응답 시간 분포 (p99 / p99.9) : 기본 실행 vs async-api 프로필
+ * 배경 부하 : 클라이언트 LOAD_CLIENTS개가 느린 API(/api/v2/orders, 지연 로딩 N+1)를 쉬지 않고 호출
+ * 측정 : 가벼운 API(/api/v3.1/orders?limit=1) 호출 시간
+ *
+ * default   : Tomcat 스레드가 느린 API에 모두 묶여 가벼운 요청도 스레드를 기다린다. -> 꼬리 지연이 길다.
+ * async-api : Tomcat 스레드는 바로 반환되고, 느린 API는 bulkhead(2)만큼만 동시에 실행된다. (초과분은 503)
+ * Tomcat 스레드 수를 작게 잡아 스레드 부족 상황을 재현한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+public class ApiTailLatencyBenchmark {
+
+    private static final int ORDERS = 2_000;
+    private static final int TOMCAT_THREADS = 16;
+    private static final int LOAD_CLIENTS = 32;
+
+    @Param({"default", "async-api"})
+    String profile;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ExecutorService load;
+    private volatile boolean running;
+    private HttpRequest slow;
+    private HttpRequest fast;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWeb(
+                "spring.profiles.active=" + profile,
+                "server.tomcat.threads.max=" + TOMCAT_THREADS);
+        BenchmarkContext.seedOrders(context, ORDERS, 2);
+
+        String baseUrl = "http://localhost:" + BenchmarkContext.port(context);
+        slow = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v2/orders")).timeout(Duration.ofMinutes(1)).build();
+        fast = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v3.1/orders?limit=1")).timeout(Duration.ofMinutes(1)).build();
+        client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+
+        running = true;
+        load = Executors.newFixedThreadPool(LOAD_CLIENTS);
+        for (int i = 0; i < LOAD_CLIENTS; i++) {
+            load.execute(() -> {
+                while (running) {
+                    try {
+                        client.send(slow, HttpResponse.BodyHandlers.discarding()); // 503(bulkhead)도 그대로 다음 요청
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        load.shutdownNow();
+        load.awaitTermination(1, TimeUnit.MINUTES);
+        context.close();
+    }
+
+    @Benchmark
+    public int fastEndpoint() throws Exception {
+        HttpResponse<Void> response = client.send(fast, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("unexpected status : " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,93 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.seed.BulkSeeder;
+import jpabook.jpashop.seed.SeedProperties;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * 매번 새로운 H2 메모리 DB를 사용하고, SQL 로그 / p6spy 로그는 끈다. (측정값에 로그 비용이 섞이지 않도록)
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param overrides "key=value" 형식의 추가 설정 (기본값보다 우선)
+     */
+    public static ConfigurableApplicationContext start(String... overrides) {
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args(overrides));
+    }
+
+    /**
+     * 내장 Tomcat까지 띄운다. (임의 포트 : port(context)로 조회)
+     */
+    public static ConfigurableApplicationContext startWeb(String... overrides) {
+        List<String> args = new ArrayList<>(Arrays.asList(overrides));
+        args.add("server.port=0");
+        args.add("jpashop.warm-up.enabled=false");
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(args(args.toArray(new String[0])));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static String[] args(String... overrides) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn",
+                "--logging.level.org.hibernate.stat=warn"));
+        for (String override : overrides) {
+            args.add("--" + override);
+        }
+        return args.toArray(new String[0]);
+    }
+
+    public static TransactionTemplate transaction(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    public static TransactionTemplate readOnlyTransaction(ConfigurableApplicationContext context) {
+        TransactionTemplate transaction = transaction(context);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    /**
+     * 회원 orders명, 상품 itemsPerOrder * 3개, 주문 orders개 (주문마다 상품 itemsPerOrder개, 모두 ORDER 상태)
+     * 운영 데이터 생성과 같은 BulkSeeder를 쓰고, 회원 / 상품은 균등하게 고른다.
+     */
+    public static void seedOrders(ConfigurableApplicationContext context, int orders, int itemsPerOrder) {
+        SeedProperties properties = new SeedProperties();
+        properties.setMembers(orders);
+        properties.setItemsPerType(itemsPerOrder);
+        properties.setCategoryDepth(0);
+        properties.setOrders(orders);
+        properties.setItemsPerOrder(itemsPerOrder);
+        properties.setSkew(0);
+        properties.setCancelRate(0);
+        context.getBean(BulkSeeder.class).seed(properties);
+    }
+}
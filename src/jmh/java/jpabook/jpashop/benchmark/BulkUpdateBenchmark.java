@@ -0,0 +1,106 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.Service.ItemService;
+import jpabook.jpashop.Service.MemberService;
+import jpabook.jpashop.repository.ItemUpdate;
+import jpabook.jpashop.repository.MemberRename;
+import jpabook.jpashop.seed.BulkSeeder;
+import jpabook.jpashop.seed.SeedProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100,000건 일괄 수정 : 한 트랜잭션 안에서
+ * dirtyChecking : 건마다 ItemService.updateItem / MemberService.update (SELECT + 변경감지 UPDATE)
+ * batch         : ItemService.updateItems / MemberService.renameMembers (JDBC batch UPDATE)
+ * 매 실행마다 값을 바꿔서 변경감지가 UPDATE를 생략하지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class BulkUpdateBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private MemberService memberService;
+    private TransactionTemplate transaction;
+    private List<Long> itemIds;
+    private List<Long> memberIds;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        SeedProperties properties = new SeedProperties();
+        properties.setMembers(ROWS);
+        properties.setItemsPerType((ROWS + 2) / 3);
+        properties.setCategoryDepth(0);
+        properties.setOrders(0);
+        context.getBean(BulkSeeder.class).seed(properties);
+
+        itemService = context.getBean(ItemService.class);
+        memberService = context.getBean(MemberService.class);
+        transaction = BenchmarkContext.transaction(context);
+
+        EntityManager em = context.getBean(EntityManager.class);
+        itemIds = BenchmarkContext.readOnlyTransaction(context).execute(status -> em.createQuery(
+                "select i.id from Item i order by i.id", Long.class).setMaxResults(ROWS).getResultList());
+        memberIds = BenchmarkContext.readOnlyTransaction(context).execute(status -> em.createQuery(
+                "select m.id from Member m where m.name like 'member%' order by m.id", Long.class).setMaxResults(ROWS).getResultList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void itemsDirtyChecking() {
+        int price = 1000 + ++round;
+        transaction.executeWithoutResult(status -> {
+            for (Long itemId : itemIds) {
+                itemService.updateItem(itemId, "ITEM" + itemId, price, 1_000_000);
+            }
+        });
+    }
+
+    @Benchmark
+    public int itemsBatch() {
+        int price = 1000 + ++round;
+        List<ItemUpdate> updates = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            updates.add(new ItemUpdate(itemId, price, 1_000_000));
+        }
+        return itemService.updateItems(updates);
+    }
+
+    @Benchmark
+    public void membersDirtyChecking() {
+        String prefix = "renamed" + ++round + "-";
+        transaction.executeWithoutResult(status -> {
+            for (Long memberId : memberIds) {
+                memberService.update(memberId, prefix + memberId);
+            }
+        });
+    }
+
+    @Benchmark
+    public int membersBatch() {
+        String prefix = "renamed" + ++round + "-";
+        List<MemberRename> renames = new ArrayList<>(memberIds.size());
+        for (Long memberId : memberIds) {
+            renames.add(new MemberRename(memberId, prefix + memberId));
+        }
+        return memberService.renameMembers(renames);
+    }
+}
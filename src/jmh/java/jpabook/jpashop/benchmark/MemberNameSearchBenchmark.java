@@ -0,0 +1,101 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.MemberNameMatch;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.search.MemberNameIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 1,000,000명 / 주문 200,000건에서 /orders 회원명 검색
+ * like    : findAllByCriteria (like '%name%', 회원 전체 스캔)
+ * prefix  : findAll + PREFIX (like 'name%', uk_member_name 범위 스캔)
+ * ngram   : findAll + CONTAINS (MemberNameIndex -> member_id in (...))
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberNameSearchBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+    private static final int ORDER_EVERY = 5; // 5명 중 1명이 주문
+    private static final int BATCH = 10_000;
+
+    private static final String[] FAMILY = {"김", "이", "박", "최", "정", "강", "조", "윤", "장", "임"};
+    private static final String[] GIVEN = {"민준", "서연", "도윤", "지우", "하준", "서윤", "예준", "하은", "시우", "지민"};
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(MemberNameIndex.class).warmUp(); // 시작 시점에는 회원이 없었으므로 다시 채운다.
+        orderRepository = context.getBean(OrderRepository.class);
+        readOnly = BenchmarkContext.readOnlyTransaction(context);
+    }
+
+    /**
+     * JPA로 100만 건을 넣으면 준비 시간이 너무 길어서 JDBC batch로 직접 넣는다.
+     * id는 시퀀스와 겹치지 않도록 큰 값부터 사용한다.
+     */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        long baseId = 1_000_000_000L;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int start = 0; start < MEMBERS; start += BATCH) {
+            List<Object[]> members = new ArrayList<>(BATCH);
+            List<Object[]> orders = new ArrayList<>(BATCH / ORDER_EVERY);
+            for (int i = start; i < start + BATCH; i++) {
+                members.add(new Object[]{baseId + i, name(i), "서울", "street", "12345"});
+                if (i % ORDER_EVERY == 0) {
+                    orders.add(new Object[]{baseId + i, baseId + i, now, "ORDER"});
+                }
+            }
+            jdbcTemplate.batchUpdate("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", members);
+            jdbcTemplate.batchUpdate("insert into orders (order_id, member_id, order_date, status) values (?, ?, ?, ?)", orders);
+        }
+    }
+
+    private static String name(int i) {
+        return FAMILY[i % FAMILY.length] + GIVEN[(i / FAMILY.length) % GIVEN.length] + i;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> like() {
+        return readOnly.execute(status -> orderRepository.findAllByCriteria(search("준12345", MemberNameMatch.CONTAINS)));
+    }
+
+    @Benchmark
+    public List<Order> prefix() {
+        return readOnly.execute(status -> orderRepository.findAll(search("김민준12345", MemberNameMatch.PREFIX)));
+    }
+
+    @Benchmark
+    public List<Order> ngram() {
+        return readOnly.execute(status -> orderRepository.findAll(search("준12345", MemberNameMatch.CONTAINS)));
+    }
+
+    private static OrderSearch search(String memberName, MemberNameMatch match) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setMemberNameMatch(match);
+        return orderSearch;
+    }
+}
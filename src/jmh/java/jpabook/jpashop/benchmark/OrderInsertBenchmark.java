@@ -0,0 +1,100 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.Service.OrderLine;
+import jpabook.jpashop.Service.OrderService;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Member;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 10,000건 INSERT 시 DB로 보내는 statement 수
+ * before : 시퀀스를 INSERT마다 조회 (increment_size=1), JDBC batch 없음 -> @GeneratedValue 기본 설정과 같은 조건
+ * after  : 엔티티별 pooled-lo 시퀀스 (increment_size=50) + batch_size=100 + order_inserts
+ *
+ * statements = Hibernate가 준비(prepare)한 statement 수. batch는 한 번 prepare 후 묶어서 실행하므로 DB 왕복 수와 같다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class OrderInsertBenchmark {
+
+    private static final int ORDERS = 10_000;
+    private static final int MEMBERS = 100;
+
+    @Param({"before", "after"})
+    String mode;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private Statistics statistics;
+    private List<OrderLine> lines;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounter {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "before".equals(mode)
+                ? BenchmarkContext.start(
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.jpa.properties.jpashop.id.increment_size=1",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+                        "spring.jpa.properties.hibernate.order_inserts=false")
+                : BenchmarkContext.start(
+                        "spring.jpa.properties.hibernate.generate_statistics=true");
+        orderService = context.getBean(OrderService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        EntityManager em = context.getBean(EntityManager.class);
+        lines = BenchmarkContext.transaction(context).execute(status -> {
+            Book book = new Book();
+            book.setName("JPA BOOK");
+            book.setPrice(10000);
+            book.setStockQuantity(Integer.MAX_VALUE);
+            em.persist(book);
+
+            List<Long> memberIds = new ArrayList<>();
+            for (int i = 0; i < MEMBERS; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                member.setAddress(new Address("서울", "street" + i, "12345"));
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+
+            List<OrderLine> result = new ArrayList<>(ORDERS);
+            for (int i = 0; i < ORDERS; i++) {
+                result.add(OrderLine.of(memberIds.get(i % MEMBERS), book.getId(), 1));
+            }
+            return result;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> insertOrders(StatementCounter counter) {
+        statistics.clear();
+        List<Long> orderIds = orderService.placeOrders(lines);
+        counter.statements += statistics.getPrepareStatementCount();
+        return orderIds;
+    }
+}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderJsonWriter;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 주문 JSON 응답 쓰기 : OrderDto 목록 + ObjectMapper(리플렉션) vs OrderJsonWriter(JsonGenerator 직접)
+ * 조회 비용은 빼고 직렬화만 비교한다. (주문은 주문상품까지 모두 로딩된 상태)
+ * 할당량 : -prof gc (build.gradle jmh.profilers) -> gc.alloc.rate.norm = 주문 1건당 할당 바이트 (OperationsPerInvocation)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(OrderJsonWriteBenchmark.ORDERS)
+public class OrderJsonWriteBenchmark {
+
+    static final int ORDERS = 1000;
+
+    @Param({"2", "10"})
+    int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private OrderJsonWriter orderJsonWriter;
+    private List<Order> orders;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedOrders(context, ORDERS, itemsPerOrder);
+        objectMapper = context.getBean(ObjectMapper.class);
+        orderJsonWriter = context.getBean(OrderJsonWriter.class);
+
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        orders = BenchmarkContext.readOnlyTransaction(context).execute(status -> {
+            List<Order> result = orderRepository.findAllWithItem();
+            result.forEach(o -> o.getOrderItems().forEach(oi -> oi.getItem().getName())); // 지연 로딩 없이 쓰기만 측정
+            return result;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void objectMapper() throws IOException {
+        List<OrderApiController.OrderDto> result = orders.stream().map(o -> new OrderApiController.OrderDto(o))
+                .collect(toList());
+        objectMapper.writeValue(out, result);
+    }
+
+    @Benchmark
+    public void jsonGenerator() throws IOException {
+        orderJsonWriter.write(orders, out);
+    }
+}
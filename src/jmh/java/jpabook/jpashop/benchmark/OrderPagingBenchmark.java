@@ -0,0 +1,61 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/v3.1/orders 페이지 깊이별 응답 시간 : offset 페이징 vs 키셋(seek) 페이징
+ * offset은 page가 커질수록 느려지고, keyset은 page 1 ~ N 까지 일정해야 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderPagingBenchmark {
+
+    private static final int ORDERS = 100_000;
+    private static final int LIMIT = 20;
+
+    @Param({"1", "100", "1000", "4000"})
+    int page;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private TransactionTemplate readOnly;
+    private OrderCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedOrders(context, ORDERS, 1);
+        orderRepository = context.getBean(OrderRepository.class);
+        readOnly = BenchmarkContext.readOnlyTransaction(context);
+
+        // page N의 커서 = page N-1의 마지막 주문
+        cursor = page == 1 ? null : readOnly.execute(status -> {
+            Order last = orderRepository.findAllWithMemberDelivery((page - 1) * LIMIT - 1, 1).get(0);
+            return OrderCursor.of(last);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> offset() {
+        return readOnly.execute(status -> orderRepository.findAllWithMemberDelivery((page - 1) * LIMIT, LIMIT));
+    }
+
+    @Benchmark
+    public List<Order> keyset() {
+        return readOnly.execute(status -> orderRepository.findAllWithMemberDelivery(cursor, LIMIT));
+    }
+}
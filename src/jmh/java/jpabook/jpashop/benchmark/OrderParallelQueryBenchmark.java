@@ -0,0 +1,72 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * V5 페이지 조회 : 주문 쿼리 -> 주문상품 쿼리 순서대로 vs 두 쿼리를 서로 다른 커넥션에서 동시에 (findAllByDto_parallel)
+ * sequential : 쓰기 트랜잭션 안에서 호출 -> findAllByDto_parallel이 한 커넥션에서 순서대로 실행한다.
+ * parallel   : 읽기 전용 트랜잭션 안에서 호출 -> 주문 쿼리는 queryExecutor에서 별도 커넥션으로 실행된다.
+ *
+ * 메모리 H2는 DB 왕복 시간이 거의 없어서 차이가 작게 나온다. 원격 DB라면 페이지당 쿼리 하나의 응답 시간만큼 줄어든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderParallelQueryBenchmark {
+
+    private static final int ORDERS = 20_000;
+
+    @Param({"20", "100", "500"})
+    int limit;
+
+    @Param({"5"})
+    int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderQueryRepository orderQueryRepository;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private List<Long> orderIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedOrders(context, ORDERS, itemsPerOrder);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        readWrite = BenchmarkContext.transaction(context);
+        readOnly = BenchmarkContext.readOnlyTransaction(context);
+
+        // 중간쯤의 페이지
+        orderIds = readOnly.execute(status -> {
+            List<OrderCursor> skipped = orderQueryRepository.findOrderKeys(null, ORDERS / 2);
+            OrderCursor cursor = skipped.get(skipped.size() - 1);
+            return orderQueryRepository.findOrderKeys(cursor, limit).stream()
+                    .map(OrderCursor::getOrderId).collect(toList());
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> sequential() {
+        return readWrite.execute(status -> orderQueryRepository.findAllByDto_parallel(orderIds));
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> parallel() {
+        return readOnly.execute(status -> orderQueryRepository.findAllByDto_parallel(orderIds));
+    }
+}
@@ -0,0 +1,135 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderSimpleApiController;
+import jpabook.jpashop.monitoring.QueryStats;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 전략 V1 ~ V6 (+ simple-orders V1 ~ V4) 비교
+ * - 처리량 : ops/s
+ * - 할당량 : -prof gc (build.gradle jmh.profilers) -> gc.alloc.rate.norm (B/op)
+ * - 쿼리 수 : statements (요청 하나에 실행된 SQL 수, QueryStats)
+ *
+ * 컨트롤러 메서드를 그대로 호출하되 open-session-in-view 대신 읽기 전용 트랜잭션 안에서 실행한다. (지연 로딩 포함)
+ * V5, simple V4는 컨트롤러가 DTO 캐시를 쓰므로 리포지토리를 직접 호출한다.
+ * V1, V2는 findAllByString의 최대 1000건 제한이 있다.
+ *
+ * 데이터 크기 : java -jar build/libs/*-jmh.jar OrderReadStrategy -p orders=10000 -p itemsPerOrder=5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderReadStrategyBenchmark {
+
+    @Param({"1000"})
+    int orders;
+
+    @Param({"2", "10"})
+    int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private OrderApiController orderApi;
+    private OrderSimpleApiController simpleOrderApi;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class QueryCounter {
+        public long statements;
+        public long entities;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedOrders(context, orders, itemsPerOrder);
+        readOnly = BenchmarkContext.readOnlyTransaction(context);
+        orderApi = context.getBean(OrderApiController.class);
+        simpleOrderApi = context.getBean(OrderSimpleApiController.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //== /api/vN/orders ==//
+    @Benchmark
+    public Object v1_entity(QueryCounter counter) { // 엔티티 노출 + 강제 지연 로딩
+        return run(counter, orderApi::ordersV1);
+    }
+
+    @Benchmark
+    public Object v2_entityToDto(QueryCounter counter) { // 지연 로딩 N+1 (batch fetch size 적용)
+        return run(counter, orderApi::ordersV2);
+    }
+
+    @Benchmark
+    public Object v3_fetchJoin(QueryCounter counter) { // findAllWithItem
+        return run(counter, orderApi::ordersV3);
+    }
+
+    @Benchmark
+    public Object v3_1_fetchJoinPage(QueryCounter counter) { // findAllWithMemberDelivery + batch fetch
+        return run(counter, () -> orderApi.ordersV3_page(0, orders, null));
+    }
+
+    @Benchmark
+    public Object v4_dtoPerOrder(QueryCounter counter) { // findOrderQueryDtos (N+1)
+        return run(counter, orderApi::ordersV4);
+    }
+
+    @Benchmark
+    public Object v5_dtoInClause(QueryCounter counter) { // findAllByDto_optimiztion
+        return run(counter, orderQueryRepository::findAllByDto_optimiztion);
+    }
+
+    @Benchmark
+    public Object v6_flat(QueryCounter counter) { // findAllByDto_flat + OrderQueryAssembler
+        return run(counter, orderApi::ordersV6);
+    }
+
+    //== /api/vN/simple-orders ==//
+    @Benchmark
+    public Object simple_v1_entity(QueryCounter counter) {
+        return run(counter, simpleOrderApi::ordersV1);
+    }
+
+    @Benchmark
+    public Object simple_v2_entityToDto(QueryCounter counter) {
+        return run(counter, simpleOrderApi::ordersV2);
+    }
+
+    @Benchmark
+    public Object simple_v3_fetchJoin(QueryCounter counter) { // findAllWithMemberDelivery
+        return run(counter, simpleOrderApi::ordersV3);
+    }
+
+    @Benchmark
+    public Object simple_v4_dto(QueryCounter counter) { // findOrderDtos
+        return run(counter, orderSimpleQueryRepository::findOrderDtos);
+    }
+
+    private Object run(QueryCounter counter, Supplier<Object> strategy) {
+        QueryStats stats = QueryStats.start();
+        try {
+            return readOnly.execute(status -> strategy.get());
+        } finally {
+            counter.statements += stats.getStatements();
+            counter.entities += stats.getEntitiesLoaded();
+            QueryStats.clear();
+        }
+    }
+}
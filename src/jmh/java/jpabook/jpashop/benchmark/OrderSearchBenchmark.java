@@ -0,0 +1,104 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 검색 처리량 : 쿼리 파싱(컴파일) 비용
+ * named    : 미리 파싱된 Named 쿼리 4개 중 선택 (findAllByString)
+ * querydsl : 공유 JPAQueryFactory (findAll) -> 같은 모양의 JPQL은 쿼리 계획 캐시에서 재사용
+ * parsed   : 매번 처음 보는 JPQL 문자열 (별칭을 바꿔서 계획 캐시를 못 쓰게 함) -> 파싱 비용이 그대로 드러난다.
+ * 데이터는 작게 두어 쿼리 실행보다 파싱 비용이 잘 보이게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderSearchBenchmark {
+
+    private static final int ORDERS = 100;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+    private OrderSearch[] searches;
+    private int next;
+    private long alias;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seedOrders(context, ORDERS, 1);
+        orderRepository = context.getBean(OrderRepository.class);
+        em = context.getBean(EntityManager.class);
+        readOnly = BenchmarkContext.readOnlyTransaction(context);
+        String memberName = readOnly.execute(status -> em.createQuery(
+                "select m.name from Member m where m.name like 'member%' order by m.id", String.class)
+                .setMaxResults(1)
+                .getSingleResult());
+        searches = new OrderSearch[]{
+                search(null, null), search(OrderStatus.ORDER, null),
+                search(null, memberName), search(OrderStatus.ORDER, memberName)};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> named() {
+        OrderSearch orderSearch = nextSearch();
+        return readOnly.execute(status -> orderRepository.findAllByString(orderSearch));
+    }
+
+    @Benchmark
+    public List<Order> querydsl() {
+        OrderSearch orderSearch = nextSearch();
+        return readOnly.execute(status -> orderRepository.findAll(orderSearch));
+    }
+
+    @Benchmark
+    public List<Order> parsed() {
+        OrderSearch orderSearch = nextSearch();
+        String o = "o" + alias++;
+        return readOnly.execute(status -> {
+            String jpql = "select " + o + " from Order " + o + " join " + o + ".member m";
+            if (orderSearch.getOrderStatus() != null) {
+                jpql += " where " + o + ".status = :status";
+            }
+            if (orderSearch.getMemberName() != null) {
+                jpql += (orderSearch.getOrderStatus() != null ? " and" : " where") + " m.name like :name";
+            }
+            TypedQuery<Order> query = em.createQuery(jpql, Order.class).setMaxResults(1000);
+            if (orderSearch.getOrderStatus() != null) {
+                query.setParameter("status", orderSearch.getOrderStatus());
+            }
+            if (orderSearch.getMemberName() != null) {
+                query.setParameter("name", orderSearch.getMemberName());
+            }
+            return query.getResultList();
+        });
+    }
+
+    private OrderSearch nextSearch() {
+        return searches[next++ & 3];
+    }
+
+    private static OrderSearch search(OrderStatus status, String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(status);
+        orderSearch.setMemberName(memberName);
+        return orderSearch;
+    }
+}
@@ -2,12 +2,16 @@ package jpabook.jpashop.Controller;
 
 import jpabook.jpashop.Service.ItemService;
 import jpabook.jpashop.Service.MemberService;
+import jpabook.jpashop.Service.OrderPipeline;
 import jpabook.jpashop.Service.OrderService;
 import jpabook.jpashop.domain.Item;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.repository.OrderSearch;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +25,7 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderPipeline orderPipeline;
 
     @GetMapping("/order")
     public String createForm(Model model) {
@@ -36,9 +41,21 @@ public class OrderController {
     @PostMapping("/order")
     public String create(@RequestParam("memberId") Long memberId,
                          @RequestParam("itemId") Long itemId,
-                         @RequestParam("count") int count) {
+                         @RequestParam("count") int count, Model model) {
 
-        orderService.order(memberId, itemId, count);
+        if (orderPipeline.isEnabled()) {
+            try {
+                orderPipeline.submit(memberId, itemId, count); // 접수만 하고 주문은 작업 스레드에서 (목록에는 처리 후 보인다.)
+            } catch (IllegalStateException e) { // 대기열 가득 참 : 입력한 주문 그대로 다시 시도할 수 있게 폼으로
+                model.addAttribute("errorMessage", e.getMessage() + " 잠시 후 다시 주문해 주세요.");
+                model.addAttribute("memberId", memberId);
+                model.addAttribute("itemId", itemId);
+                model.addAttribute("count", count);
+                return createForm(model);
+            }
+        } else {
+            orderService.order(memberId, itemId, count);
+        }
         return "redirect:/orders";
     }
 
@@ -46,9 +63,11 @@ public class OrderController {
      * 주문내역
      */
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders", orders);
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                            @PageableDefault(size = 20) Pageable pageable, Model model) {
+        Page<Order> page = orderService.findOrders(orderSearch, pageable);
+        model.addAttribute("orders", page.getContent());
+        model.addAttribute("page", page);
         return "order/orders";
     }
 
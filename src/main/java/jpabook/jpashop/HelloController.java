@@ -1,9 +1,11 @@
 package jpabook.jpashop;
 
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+@Lazy // 거의 호출되지 않으므로 첫 요청 때 생성한다. (요청 매핑은 시작 시 등록됨)
 @Controller
 public class HelloController {
 
@@ -0,0 +1,65 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.category.CategoryTree;
+import jpabook.jpashop.repository.category.CategoryTreeCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryTreeCache categoryTreeCache;
+
+    /**
+     * 카테고리 추가 (parentId가 null이면 최상위)
+     */
+    @Transactional
+    public Long saveCategory(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            categoryRepository.findOne(parentId).addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        categoryTreeCache.reloadAfterCommit();
+        return category.getId();
+    }
+
+    /**
+     * child를 (하위 카테고리와 함께) parent 아래로 옮긴다.
+     */
+    @Transactional
+    public void addChildCategory(Long parentId, Long childId) {
+        if (categoryRepository.isAncestorOrSelf(childId, parentId)) {
+            throw new IllegalStateException("자기 자신이나 하위 카테고리 아래로 옮길 수 없습니다.");
+        }
+        Category parent = categoryRepository.findOne(parentId);
+        Category child = categoryRepository.findOne(childId);
+        parent.addChildCategory(child);
+        categoryRepository.attach(parentId, childId);
+        categoryTreeCache.reloadAfterCommit();
+    }
+
+    /**
+     * 카테고리와 모든 하위 카테고리의 상품 (쿼리 한 번)
+     */
+    public List<Item> findItems(Long categoryId, int offset, int limit) {
+        return categoryRepository.findItemsInSubtree(categoryId, offset, limit);
+    }
+
+    /**
+     * 최상위 카테고리부터 자기 자신까지 (메모리 트리, DB 조회 없음)
+     */
+    public List<CategoryTree.Node> findBreadcrumbs(Long categoryId) {
+        return categoryTreeCache.get().ancestors(categoryId);
+    }
+}
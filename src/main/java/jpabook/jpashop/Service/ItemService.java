@@ -3,6 +3,7 @@ package jpabook.jpashop.Service;
 import jpabook.jpashop.domain.Book;
 import jpabook.jpashop.domain.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.ItemUpdate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,7 +27,16 @@ public class ItemService {
         Item findItem = itemRepository.findOne(itemId); // itemId를 기반으로 DB에 있는 실제 영속상태의 엔티티를 가져옴.
         findItem.setPrice(price);
         findItem.setName(name);
-        findItem.setStockQuantity(stockQuantity);
+        itemRepository.updateStock(itemId, stockQuantity); // 재고는 변경감지가 아니라 직접 UPDATE (Item.stockQuantity 참고)
+    }
+
+    /**
+     * 가격/재고 일괄 수정 : 상품마다 SELECT + 변경감지 UPDATE 대신 JDBC batch UPDATE
+     * 이 트랜잭션에서 앞서 읽은 상품 엔티티는 준영속이 된다. (영속성 컨텍스트 초기화)
+     */
+    @Transactional
+    public int updateItems(List<ItemUpdate> updates) {
+        return itemRepository.updateAll(updates);
     }
 
     public List<Item> findItems() {
@@ -1,12 +1,20 @@
 package jpabook.jpashop.Service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRename;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
+import jpabook.jpashop.repository.search.MemberNameFilter;
+import jpabook.jpashop.repository.search.MemberNameIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Transactional(readOnly = true) // JPA의 데이터 변경이나 로직은 트랜잭션 안에서 실행되어야한다.
@@ -15,6 +23,10 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository; // 컴파일 시점 체크를 해줌
+    private final MemberNameIndex memberNameIndex; // 회원명 부분 일치 검색 인덱스
+    private final MemberNameFilter memberNameFilter; // 이름 중복 확인 전 DB 조회 생략용
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderDtoCache orderDtoCache; // 주문 조회 DTO에 회원 이름이 들어 있다.
 
 //    @Autowired //생성자 주입
 //    public MemberService(MemberRepository memberRepository) {
@@ -27,21 +39,32 @@ public class MemberService {
     @Transactional // 쓰기이므로 readOnly 옵션 주면 안된다.
     public Long join(Member member) {
         validateDuplidateMember(member); //이름 중복 회원 검증
-        memberRepository.save(member);
+        try {
+            memberRepository.saveAndFlush(member); // INSERT를 바로 실행해서 유니크 제약조건 위반을 여기서 확인
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e); // 동시에 같은 이름으로 가입한 경우
+        }
+        memberNameFilter.put(member.getName());
+        memberNameIndex.putAfterCommit(member.getId(), member.getName());
 
         return member.getId();
     }
 
     // 이름 중복회원 검증
     public void validateDuplidateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
+        validateDuplicateName(member.getName());
+    }
 
-        if (!findMembers.isEmpty()) {
+    private void validateDuplicateName(String name) {
+        if (!memberNameFilter.mightContain(name)) {
+            return; // 처음 보는 이름 : DB 조회 생략
+        }
+        if (memberRepository.existsByName(name)) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
         /*
-         동시에 '홍길동'이라는 이름으로 가입한 경우 동시에 가입되므로 문제가 생길 수 있다.
-         이런 경우, 실무에서는 데이터베이스 내 name을 유니크 제약조건을 거는 것이 안전하다.
+         동시에 '홍길동'이라는 이름으로 가입한 경우 둘 다 이 검증을 통과할 수 있다.
+         그래서 데이터베이스 name에 유니크 제약조건(uk_member_name)을 걸고, 위반하면 같은 예외로 바꾼다. (join, update)
          */
     }
 
@@ -60,7 +83,20 @@ public class MemberService {
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findById(id).get();
+        if (name.equals(member.getName())) {
+            return;
+        }
+        validateDuplicateName(name);
         member.setName(name);
+        try {
+            memberRepository.flush(); // 유니크 제약조건 위반을 커밋 전에 확인
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameFilter.put(name);
+        memberNameIndex.putAfterCommit(id, name);
+        orderSummaryRepository.updateMemberName(id, name); // 주문 요약의 회원 이름도 변경
+        orderDtoCache.invalidateAfterCommit();
 
         //트랜잭션 끝나고 커밋되는 시점에서 변경감지를 실행함.
 
@@ -69,4 +105,36 @@ public class MemberService {
          그대로 두거나 id정도를 반환하는 것도 하나의 개발 스타일.
          */
     }
+
+    /**
+     * 회원 이름 일괄 변경 : 회원마다 SELECT + 변경감지 UPDATE 대신 JDBC batch UPDATE (회원, 주문 요약)
+     * 요청 안에 같은 이름이 있거나 이미 있는 이름이면 전체를 롤백한다.
+     * 유니크 제약조건은 행마다 바로 검사하므로, 한 요청에서 두 회원의 이름을 맞바꾸는 것(A->B, B->A)도 실패한다.
+     * 맞바꾸려면 임시 이름으로 나눠서 요청한다.
+     * 이 트랜잭션에서 앞서 읽은 엔티티는 준영속이 된다. (영속성 컨텍스트 초기화)
+     */
+    @Transactional
+    public int renameMembers(List<MemberRename> renames) {
+        Set<String> names = new HashSet<>();
+        for (MemberRename rename : renames) {
+            if (!names.add(rename.getName())) {
+                throw new IllegalStateException("이미 존재하는 회원입니다.");
+            }
+        }
+
+        int updated;
+        try {
+            updated = memberRepository.renameAll(renames);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        orderSummaryRepository.updateMemberNames(renames);
+
+        for (MemberRename rename : renames) {
+            memberNameFilter.put(rename.getName());
+            memberNameIndex.putAfterCommit(rename.getMemberId(), rename.getName());
+        }
+        orderDtoCache.invalidateAfterCommit();
+        return updated;
+    }
 }
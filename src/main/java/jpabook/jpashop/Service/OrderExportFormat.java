@@ -0,0 +1,29 @@
+package jpabook.jpashop.Service;
+
+import lombok.Getter;
+
+/**
+ * 주문 export 형식
+ */
+@Getter
+public enum OrderExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"), // 한 줄에 JSON 하나
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    OrderExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public static OrderExportFormat from(String format) {
+        for (OrderExportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 형식입니다: " + format);
+    }
+}
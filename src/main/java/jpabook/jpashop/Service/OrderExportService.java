@@ -0,0 +1,108 @@
+package jpabook.jpashop.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 주문 전체 export
+ * 결과를 List로 모으지 않고 DB 커서에서 읽는 대로 바로 OutputStream에 쓴다. (주문 수와 상관없이 메모리 일정)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final String CSV_HEADER = "orderId,name,orderDate,orderStatus,city,street,zipcode,itemName,orderPrice,count";
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    public void export(OrderExportFormat format, OutputStream out) throws IOException {
+        if (format == OrderExportFormat.CSV) {
+            exportCsv(out);
+        } else {
+            exportNdjson(out);
+        }
+    }
+
+    // 한 줄에 주문 하나 (주문상품 포함) : OrderQueryAssembler로 주문이 완성되는 대로 쓴다.
+    private void exportNdjson(OutputStream out) throws IOException {
+        // 주문마다 flush 하지 않도록 FLUSH_AFTER_WRITE_VALUE 끔
+        try (SequenceWriter writer = objectMapper.writerFor(OrderQueryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            orderQueryRepository.streamAllByDto(FETCH_SIZE, order -> {
+                try {
+                    writer.write(order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        orderQueryRepository.streamAllByDto_flat(FETCH_SIZE, flat -> {
+            try {
+                writeCsvRow(writer, flat);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, OrderFlatDto flat) throws IOException {
+        Address address = flat.getAddress();
+        writer.write(String.valueOf(flat.getOrderId()));
+        writer.write(',');
+        writeCsvField(writer, flat.getName());
+        writer.write(',');
+        writeCsvField(writer, flat.getOrderDate() == null ? null : flat.getOrderDate().toString());
+        writer.write(',');
+        writeCsvField(writer, flat.getOrderStatus() == null ? null : flat.getOrderStatus().name());
+        writer.write(',');
+        writeCsvField(writer, address == null ? null : address.getCity());
+        writer.write(',');
+        writeCsvField(writer, address == null ? null : address.getStreet());
+        writer.write(',');
+        writeCsvField(writer, address == null ? null : address.getZipcode());
+        writer.write(',');
+        writeCsvField(writer, flat.getItemName());
+        writer.write(',');
+        writer.write(String.valueOf(flat.getOrderPrice()));
+        writer.write(',');
+        writer.write(String.valueOf(flat.getCount()));
+        writer.write('\n');
+    }
+
+    // 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번 쓴다. (RFC 4180)
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
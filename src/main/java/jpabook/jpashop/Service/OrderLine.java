@@ -0,0 +1,37 @@
+package jpabook.jpashop.Service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 주문 한 건 : 회원 1명 + (상품, 수량) 여러 개
+ * OrderService.placeOrders 입력
+ */
+@Getter
+public class OrderLine {
+
+    private final Long memberId;
+    private final List<ItemCount> items;
+
+    public OrderLine(Long memberId, List<ItemCount> items) {
+        this.memberId = memberId;
+        this.items = items;
+    }
+
+    public static OrderLine of(Long memberId, Long itemId, int count) {
+        return new OrderLine(memberId, Collections.singletonList(new ItemCount(itemId, count)));
+    }
+
+    @Getter
+    public static class ItemCount {
+        private final Long itemId;
+        private final int count;
+
+        public ItemCount(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
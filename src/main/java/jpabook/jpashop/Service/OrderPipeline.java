@@ -0,0 +1,217 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 비동기 주문 (jpashop.order-pipeline.enabled=true)
+ * 요청 스레드는 주문 요청(outbox)만 저장하고 바로 돌아간다. 작업 스레드 하나가 대기열에서 최대 batch-size건씩 꺼내서
+ * 한 트랜잭션으로 주문한다. (group commit : 커넥션 1개, 커밋 1번, INSERT/UPDATE는 JDBC batch)
+ *
+ * - 대기열이 가득 차면 접수하지 않는다. (IllegalStateException)
+ * - 묶음 중 한 건이라도 실패하면 (재고 부족 등) 묶음 전체를 롤백하고 한 건씩 다시 처리해서, 실패한 요청만 FAILED가 된다.
+ *   잠금 대기 시간 초과 같은 일시적인 실패는 FAILED로 만들지 않고 PENDING으로 남긴다.
+ * - 저장은 됐지만 대기열에 못 들어간 요청, 재시작 전에 처리하지 못한 요청은 PENDING으로 남아 있다가 주기적으로 다시 대기열에 넣는다.
+ *   대기열에 있거나 처리 중인 요청은 다시 넣지 않는다. (inFlight)
+ * - 작업 스레드가 하나이므로 한 서버 안에서 같은 요청을 동시에 처리하지 않는다. (여러 서버에서 켜면 안 된다.)
+ */
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    private final OrderRequestService orderRequestService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<Long> queue;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet(); // 대기열에 넣은 뒤 처리가 끝나기 전까지의 요청 id
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public OrderPipeline(OrderRequestService orderRequestService,
+                         @Value("${jpashop.order-pipeline.enabled:false}") boolean enabled,
+                         @Value("${jpashop.order-pipeline.batch-size:100}") int batchSize,
+                         @Value("${jpashop.order-pipeline.queue-capacity:10000}") int queueCapacity) {
+        this.orderRequestService = orderRequestService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 주문 접수
+     * @return 주문 요청 id (OrderRequestService.findOne으로 처리 결과 조회)
+     */
+    public Long submit(Long memberId, Long itemId, int count) {
+        if (!enabled) {
+            throw new IllegalStateException("비동기 주문을 사용하지 않습니다.");
+        }
+        if (queue.remainingCapacity() == 0) {
+            throw new IllegalStateException("주문 대기열이 가득 찼습니다.");
+        }
+        Long requestId = orderRequestService.request(memberId, itemId, count); // 커밋 후 대기열에 넣는다.
+        enqueue(requestId); // 그 사이에 가득 찼으면 복구 작업이 나중에 넣는다.
+        accepted.incrementAndGet();
+        return requestId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        enqueuePending(LocalDateTime.now()); // 재시작 전에 처리하지 못한 요청
+        running = true;
+        worker = new Thread(this::drain, "order-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("order pipeline started: batch size {}, queue capacity {}", batchSize, queue.remainingCapacity() + queue.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.order-pipeline.recovery-interval:30000}")
+    public void recover() {
+        if (running) {
+            enqueuePending(LocalDateTime.now().minusSeconds(30)); // 방금 접수된 요청은 대기열에 있다.
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10)); // 처리 중인 묶음은 끝낸다. 남은 요청은 PENDING으로 남는다.
+        }
+    }
+
+    void enqueuePending(LocalDateTime requestedBefore) {
+        int room = queue.remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        int recovered = 0;
+        for (Long id : orderRequestService.findPendingIds(requestedBefore, room)) {
+            if (enqueue(id)) {
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            log.info("order pipeline recovered {} pending requests", recovered);
+        }
+    }
+
+    // 이미 대기열에 있거나 처리 중이면 넣지 않는다.
+    private boolean enqueue(Long requestId) {
+        if (!inFlight.add(requestId)) {
+            return false;
+        }
+        if (!queue.offer(requestId)) {
+            inFlight.remove(requestId);
+            return false;
+        }
+        return true;
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("order pipeline batch failed", e); // 요청은 PENDING으로 남아 복구 작업이 다시 넣는다.
+            } finally {
+                inFlight.removeAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    void processBatch(List<Long> requestIds) {
+        batches.incrementAndGet();
+        try {
+            completed.addAndGet(orderRequestService.process(requestIds));
+            return;
+        } catch (RuntimeException e) {
+            if (requestIds.size() == 1) {
+                failOrRetryLater(requestIds.get(0), e);
+                return;
+            }
+            log.debug("order pipeline batch of {} rolled back, retrying one by one: {}", requestIds.size(), e.toString());
+        }
+
+        for (Long requestId : requestIds) { // 실패한 요청 찾기
+            try {
+                completed.addAndGet(orderRequestService.process(Collections.singletonList(requestId)));
+            } catch (RuntimeException e) {
+                failOrRetryLater(requestId, e);
+            }
+        }
+    }
+
+    /*
+     다시 해도 결과가 같은 실패(재고 부족, 없는 회원/상품 등)만 FAILED로 끝낸다.
+     잠금 대기 시간 초과, 교착 상태, 커넥션 오류 같은 일시적인 실패는 PENDING으로 남겨서 복구 작업이 다시 넣는다.
+     */
+    private void failOrRetryLater(Long requestId, RuntimeException e) {
+        if (!(e instanceof NotEnoughStockException || e instanceof IllegalArgumentException || e instanceof IllegalStateException)) {
+            log.warn("order request {} left pending: {}", requestId, e.toString());
+            return;
+        }
+        orderRequestService.fail(requestId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        failed.incrementAndGet();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.OrderRequest;
+import jpabook.jpashop.domain.OrderRequestStatus;
+import jpabook.jpashop.repository.OrderRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 비동기 주문 요청 저장 / 처리 (OrderPipeline에서 호출)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderRequestService {
+
+    private final OrderRequestRepository orderRequestRepository;
+    private final OrderService orderService;
+
+    /**
+     * 주문 요청 접수 : 요청만 저장하고 커밋한다. (주문, 재고 차감은 나중에)
+     */
+    @Transactional
+    public Long request(Long memberId, Long itemId, int count) {
+        OrderRequest request = OrderRequest.create(memberId, itemId, count);
+        orderRequestRepository.save(request);
+        return request.getId();
+    }
+
+    /**
+     * 요청 여러 건을 한 트랜잭션으로 주문 처리 (group commit)
+     * 한 건이라도 실패하면 전체 롤백 -> 호출하는 쪽에서 한 건씩 다시 처리한다.
+     * @return 처리한 요청 수 (이미 처리된 요청은 제외)
+     */
+    @Transactional
+    public int process(Collection<Long> requestIds) {
+        List<OrderRequest> requests = orderRequestRepository.findPending(requestIds);
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        List<Long> orderIds = orderService.placeOrders(requests.stream()
+                .map(r -> OrderLine.of(r.getMemberId(), r.getItemId(), r.getCount()))
+                .collect(toList()));
+        for (int i = 0; i < requests.size(); i++) {
+            requests.get(i).complete(orderIds.get(i));
+        }
+        return requests.size();
+    }
+
+    @Transactional
+    public void fail(Long requestId, String reason) {
+        OrderRequest request = orderRequestRepository.findOne(requestId);
+        if (request != null && request.getStatus() == OrderRequestStatus.PENDING) {
+            request.fail(reason);
+        }
+    }
+
+    public OrderRequest findOne(Long requestId) {
+        return orderRequestRepository.findOne(requestId);
+    }
+
+    public List<Long> findPendingIds(LocalDateTime requestedBefore, int limit) {
+        return orderRequestRepository.findPendingIds(requestedBefore, limit);
+    }
+}
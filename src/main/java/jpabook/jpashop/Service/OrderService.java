@@ -1,15 +1,24 @@
 package jpabook.jpashop.Service;
 
 import jpabook.jpashop.domain.*;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 @Transactional(readOnly = true)
@@ -19,6 +28,8 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderDtoCache orderDtoCache;
 
     /**
      * 주문
@@ -43,9 +54,96 @@ public class OrderService {
         // 주문 저장
         orderRepository.save(order); // Order.class - Cascade 옵션 참고 : order를 persist하면 그 안에잇는 orderItem도 강제로 persist해줌.
 
+        // 재고 차감 (DB) : 재고 확인은 이 UPDATE 한 번으로만 한다. (2차 캐시의 엔티티 재고는 예전 값일 수 있다)
+        reserveStock(item.getId(), count);
+
+        // 주문 요약 / 일별 집계 (같은 트랜잭션)
+        orderSummaryRepository.save(order);
+
+        orderDtoCache.invalidateAfterCommit(); // 커밋 후 주문 조회 캐시 비우기
         return order.getId();
     }
 
+    /**
+     * 여러 건 주문 (결제, 주문 가져오기 등)
+     * 회원/상품은 각각 in 쿼리 1번으로 조회하고, 재고는 상품별로 수량을 합쳐서 상품당 UPDATE 1번.
+     * 주문/주문상품/배송 INSERT는 hibernate.jdbc.batch_size 단위로 묶여서 실행된다. (application.yml)
+     * 한 건이라도 실패하면 (재고 부족 등) 전체 롤백
+     */
+    @Transactional
+    public List<Long> placeOrders(List<OrderLine> lines) {
+        if (lines.isEmpty()) {
+            return Collections.emptyList();
+        }
+        for (OrderLine line : lines) {
+            if (line.getItems().isEmpty()) {
+                throw new IllegalArgumentException("주문 상품이 없습니다. memberId=" + line.getMemberId());
+            }
+        }
+
+        // 엔티티 조회
+        Set<Long> memberIds = new HashSet<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (OrderLine line : lines) {
+            memberIds.add(line.getMemberId());
+            line.getItems().forEach(i -> itemIds.add(i.getItemId()));
+        }
+        Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                .collect(toMap(Member::getId, identity()));
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(toMap(Item::getId, identity()));
+
+        List<Order> orders = new ArrayList<>(lines.size());
+        Map<Long, Integer> reservedCounts = new TreeMap<>(); // 상품별 총 주문 수량 (item_id 오름차순 : 잠금 순서 고정)
+        for (OrderLine line : lines) {
+            Member member = find(members, line.getMemberId(), "회원");
+
+            OrderItem[] orderItems = new OrderItem[line.getItems().size()];
+            for (int i = 0; i < orderItems.length; i++) {
+                OrderLine.ItemCount itemCount = line.getItems().get(i);
+                Item item = find(items, itemCount.getItemId(), "상품");
+                orderItems[i] = OrderItem.createOrderItem(item, item.getPrice(), itemCount.getCount());
+                reservedCounts.merge(item.getId(), itemCount.getCount(), Integer::sum);
+            }
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orders.add(order);
+        }
+
+        // 재고 차감 (DB) : 상품당 1번
+        reservedCounts.forEach(this::reserveStock);
+
+        // 주문 요약 / 일별 집계 : 집계 행당 UPDATE 1번
+        orderSummaryRepository.save(orders);
+
+        orderDtoCache.invalidateAfterCommit();
+        return orders.stream().map(Order::getId).collect(toList());
+    }
+
+    private <T> T find(Map<Long, T> entities, Long id, String name) {
+        T entity = entities.get(id);
+        if (entity == null) {
+            throw new IllegalArgumentException("존재하지 않는 " + name + "입니다. id=" + id);
+        }
+        return entity;
+    }
+
+    /*
+     재고 차감은 조건부 UPDATE 한 번으로 처리한다. (ItemRepository.removeStock)
+     - 읽고-수정-쓰기가 아니므로 동시에 주문해도 초과 판매가 없다.
+     - 행 잠금은 UPDATE 시점부터 커밋까지만 잡힌다. 주문 INSERT가 먼저 flush 된 뒤 마지막에 실행되므로 잠금 시간이 짧다.
+     - 여러 상품은 항상 item_id 오름차순으로 잠근다. 같은 상품들을 다른 순서로 주문하는 트랜잭션끼리 교착 상태가 되지 않는다.
+     */
+    private void reserveStock(Long itemId, int count) {
+        if (!itemRepository.removeStock(itemId, count)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
     /**
      * 주문 취소
      */
@@ -55,6 +153,13 @@ public class OrderService {
         Order order = orderRepository.findOne(orderId);
         // 주문 취소
         order.cancel();
+        // 재고 복구 (DB)
+        for (OrderItem orderItem : order.getOrderItems()) {
+            itemRepository.addStock(orderItem.getItem().getId(), orderItem.getCount());
+        }
+        // 주문 요약 / 일별 집계
+        orderSummaryRepository.cancel(order);
+        orderDtoCache.invalidateAfterCommit(); // 커밋 후 주문 조회 캐시 비우기
 
         //JPA를 활용하면, 데이터만 바꾸면 JPA가 알아서 변경된 포인트를 dirtyChecking(상태변경검사)해준다.
     }
@@ -63,4 +168,9 @@ public class OrderService {
     public List<Order> findOrders(OrderSearch orderSearch) {
         return orderRepository.findAll(orderSearch);
     }
+
+    // 검색 (페이징)
+    public Page<Order> findOrders(OrderSearch orderSearch, Pageable pageable) {
+        return orderRepository.findAll(orderSearch, pageable);
+    }
 }
@@ -0,0 +1,45 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.OrderDailyRollup;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 대시보드용 주문 집계 조회 (주문 요약 / 일별 집계는 OrderService가 주문 트랜잭션 안에서 갱신한다.)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    /**
+     * 오늘, 내일 집계 행을 미리 만들어 둔다. (시작 시, 매시 정각)
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 * * * *")
+    public void prepareDailyRollups() {
+        LocalDate today = LocalDate.now();
+        orderSummaryRepository.createRollupsIfAbsent(today);
+        orderSummaryRepository.createRollupsIfAbsent(today.plusDays(1));
+    }
+
+    public OrderDailyRollup findDailyRollup(LocalDate day, OrderStatus status) {
+        return orderSummaryRepository.findDailyRollup(day, status);
+    }
+
+    public List<OrderDailyRollup> findDailyRollups(LocalDate from, LocalDate to) {
+        return orderSummaryRepository.findDailyRollups(from, to);
+    }
+}
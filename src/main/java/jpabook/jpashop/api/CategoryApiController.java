@@ -0,0 +1,59 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.CategoryService;
+import jpabook.jpashop.domain.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryService categoryService;
+
+    // 카테고리 + 하위 카테고리 전체의 상품
+    @GetMapping("/api/categories/{id}/items")
+    public List<CategoryItemDto> items(@PathVariable("id") Long id,
+                                       @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                       @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return categoryService.findItems(id, offset, limit).stream()
+                .map(CategoryItemDto::new)
+                .collect(Collectors.toList());
+    }
+
+    // 최상위 카테고리 > ... > 현재 카테고리
+    @GetMapping("/api/categories/{id}/breadcrumbs")
+    public List<BreadcrumbDto> breadcrumbs(@PathVariable("id") Long id) {
+        return categoryService.findBreadcrumbs(id).stream()
+                .map(node -> new BreadcrumbDto(node.getId(), node.getName()))
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    static class CategoryItemDto {
+        private Long id;
+        private String name;
+        private int price;
+
+        CategoryItemDto(Item item) {
+            id = item.getId();
+            name = item.getName();
+            price = item.getPrice();
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BreadcrumbDto {
+        private Long id;
+        private String name;
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.ItemService;
+import jpabook.jpashop.repository.ItemUpdate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemService itemService;
+
+    // 상품 가격/재고 일괄 수정 API (카탈로그 반영) : 보내지 않은 필드는 그대로 둔다.
+    @PatchMapping("/api/v1/items")
+    public UpdateItemsResponse updateItemsV1(@RequestBody List<UpdateItemRequest> requests) {
+        List<ItemUpdate> updates = requests.stream()
+                .map(r -> new ItemUpdate(r.getId(), r.getPrice(), r.getStockQuantity()))
+                .collect(Collectors.toList());
+        return new UpdateItemsResponse(requests.size(), itemService.updateItems(updates));
+    }
+
+    @Data
+    static class UpdateItemRequest {
+        private Long id; // 없는 id면 수정되지 않는다. (updated에서 빠짐)
+        private Integer price; // null이면 그대로
+        private Integer stockQuantity; // null이면 그대로
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class UpdateItemsResponse {
+        private int requested;
+        private int updated; // 없는 상품 id는 제외
+    }
+}
@@ -2,6 +2,7 @@ package jpabook.jpashop.api;
 
 import jpabook.jpashop.Service.MemberService;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRename;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -80,6 +81,28 @@ public class MameberApiController {
         return new UpdateMemberResponse(findMember.getId(), findMember.getName());
     }
 
+    // 회원 이름 일괄 수정 API
+    @PatchMapping("/api/v2/members")
+    public RenameMembersResponse renameMembersV2(@RequestBody List<RenameMemberRequest> requests) {
+        List<MemberRename> renames = requests.stream()
+                .map(r -> new MemberRename(r.getId(), r.getName()))
+                .collect(Collectors.toList());
+        return new RenameMembersResponse(requests.size(), memberService.renameMembers(renames));
+    }
+
+    @Data
+    static class RenameMemberRequest {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RenameMembersResponse {
+        private int requested;
+        private int updated; // 없는 회원 id는 제외
+    }
+
     @Data
     static class UpdateMemberRequest {
         private String name;
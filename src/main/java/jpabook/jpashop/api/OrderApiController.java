@@ -4,22 +4,33 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryAssembler;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.support.InClauseBatchLoader;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static java.util.stream.Collectors.*;
+import static java.util.stream.Collectors.toList;
 
 @RestController
 @RequiredArgsConstructor
@@ -27,6 +38,10 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderDtoCache orderDtoCache;
+    private final OrderJsonWriter orderJsonWriter;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     /**
      * V1. 엔티티 직접 노출
@@ -78,16 +93,49 @@ public class OrderApiController {
     /**
      * V3.1 컬렉션 페이징 한계 돌파
      * yml파일 : default_batch_fetch_size 추가
+     *
+     * 키셋(seek) 페이징 : 응답 헤더(X-Next-Cursor)의 토큰을 cursor 파라미터로 넘기면 offset 대신 커서 다음부터 조회한다.
+     * 뒤 페이지로 갈수록 느려지는 offset 방식과 달리 페이지 깊이와 상관없이 일정한 속도.
+     * 마지막 페이지에서는 헤더가 없다.
      */
     @GetMapping("/api/v3.1/orders")
-    public List<OrderDto> ordersV3_page (
+    public ResponseEntity<List<OrderDto>> ordersV3_page (
             @RequestParam(value = "offset", defaultValue = "0") int offset,
-            @RequestParam(value = "limit", defaultValue = "100") int limit) {
-        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit); // ToOne관계는 패치조인 (페이지 영향x)
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        List<Order> orders = StringUtils.hasText(cursor)
+                ? orderRepository.findAllWithMemberDelivery(decodeCursor(cursor), limit)
+                : orderRepository.findAllWithMemberDelivery(offset, limit); // ToOne관계는 패치조인 (페이지 영향x)
 
         List<OrderDto> result = orders.stream().map(o -> new OrderDto(o)).collect(toList());
 
-        return result;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!orders.isEmpty() && orders.size() == limit) { // 다음 페이지가 있을 수 있는 경우에만 커서 발급
+            response.header(NEXT_CURSOR_HEADER, OrderCursor.of(orders.get(orders.size() - 1)).encode());
+        }
+        return response.body(result);
+    }
+
+    /**
+     * V3.2 V3.1과 같은 조회 + 응답 JSON 직접 쓰기 (OrderJsonWriter)
+     * OrderDto 목록을 만들지 않고 엔티티에서 바로 응답 스트림에 쓴다. 응답 JSON은 V3.1과 같다.
+     */
+    @GetMapping("/api/v3.2/orders")
+    public void ordersV3_stream(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletResponse response) throws IOException {
+        List<Order> orders = StringUtils.hasText(cursor)
+                ? orderRepository.findAllWithMemberDelivery(decodeCursor(cursor), limit)
+                : orderRepository.findAllWithMemberDelivery(offset, limit);
+
+        if (!orders.isEmpty() && orders.size() == limit) { // 헤더는 바디를 쓰기 전에
+            response.setHeader(NEXT_CURSOR_HEADER, OrderCursor.of(orders.get(orders.size() - 1)).encode());
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        orderJsonWriter.write(orders, response.getOutputStream());
     }
 
     /**
@@ -104,7 +152,27 @@ public class OrderApiController {
      */
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimiztion();
+        return orderDtoCache.get(OrderDtoCache.ORDERS, orderQueryRepository::findAllByDto_optimiztion); // 주문/취소 커밋 전까지 캐시
+    }
+
+    /**
+     * V5.1 키셋 페이징 + 병렬 조회
+     * 페이지의 주문 id를 인덱스로 먼저 구한 뒤, 주문 쿼리와 주문상품 쿼리를 서로 다른 커넥션에서 동시에 실행한다.
+     */
+    @GetMapping("/api/v5.1/orders")
+    public ResponseEntity<List<OrderQueryDto>> ordersV5_page(
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = Math.min(limit, InClauseBatchLoader.MAX_CHUNK_SIZE);
+        List<OrderCursor> keys = orderQueryRepository.findOrderKeys(
+                StringUtils.hasText(cursor) ? decodeCursor(cursor) : null, pageSize);
+        List<Long> orderIds = keys.stream().map(OrderCursor::getOrderId).collect(toList());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!keys.isEmpty() && keys.size() == pageSize) { // 다음 페이지가 있을 수 있는 경우에만 커서 발급
+            response.header(NEXT_CURSOR_HEADER, keys.get(keys.size() - 1).encode());
+        }
+        return response.body(orderQueryRepository.findAllByDto_parallel(orderIds));
     }
 
 
@@ -116,30 +184,37 @@ public class OrderApiController {
     /**
      * V6. JPA에서 DTO 직접 조회ㅡ 플랫 데이터 최적화 : 쿼리문 1번으로 해결 (V5 최적화)
      * 쿼리는 한번이지만 DB에서 애플리케이션에 전달하는 데이터에 중복데이터가 있어서 V5보다 느릴 수 있다.
-     * 애플리케이션에서 추가 작업을 해야한다.
-     * order를 기준으로 페이징을 하면 데이터 중복으로 인해 페이징이 불가능하다.
+     * 애플리케이션에서 추가 작업을 해야한다. -> OrderQueryAssembler : order id 순으로 한 번만 훑으면서 주문 단위로 조립
+     * order를 기준으로 페이징을 하면 데이터 중복으로 인해 페이징이 불가능하다. -> V6.1
      */
     @GetMapping("/api/v6/orders")
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(),
-                                o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
-                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())))
-                .entrySet()
-                .stream().map(e -> new OrderQueryDto(e.getKey().getOrderId(),
-                        e.getKey().getName(),
-                        e.getKey().getOrderDate(),
-                        e.getKey().getOrderStatus(),
-                        e.getKey().getAddress(),
-                        e.getValue()))
-                .collect(toList());
+        return OrderQueryAssembler.assemble(flats);
+    }
 
+    /**
+     * V6.1 플랫 데이터 페이징 : 주문 id 기준으로 먼저 페이징한 뒤 해당 주문들의 플랫 데이터만 조회
+     */
+    @GetMapping("/api/v6.1/orders")
+    public List<OrderQueryDto> ordersV6_page(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat(offset, limit);
+        return OrderQueryAssembler.assemble(flats);
+    }
+
+    // 잘못된 커서는 클라이언트 오류 (400)
+    private OrderCursor decodeCursor(String cursor) {
+        try {
+            return OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @Getter
-    static class OrderDto {
+    public static class OrderDto {
         private Long orderId;
         private String name;
         private LocalDateTime orderDate;
@@ -166,7 +241,7 @@ public class OrderApiController {
     }
 
     @Getter
-    static class OrderItemDto {
+    public static class OrderItemDto {
         // 상품명, 가격, 개수만 필요한 경우
         private String itemName;
         private int orderPrice;
@@ -0,0 +1,42 @@
+package jpabook.jpashop.api;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jpabook.jpashop.repository.order.OrderDtoCache;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderDtoCacheApiController {
+
+    private final OrderDtoCache orderDtoCache;
+
+    /**
+     * 주문 조회 DTO 캐시 통계 (hit/miss/eviction)
+     */
+    @GetMapping("/api/order-dto-cache/stats")
+    public OrderDtoCacheStats stats() {
+        return new OrderDtoCacheStats(orderDtoCache.stats(), orderDtoCache.invalidationCount(), orderDtoCache.estimatedSize());
+    }
+
+    @Data
+    static class OrderDtoCacheStats {
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private long evictionCount; // 크기/시간 초과로 제거된 수
+        private long invalidationCount; // 주문/취소 커밋으로 비운 횟수
+        private long size;
+
+        public OrderDtoCacheStats(CacheStats stats, long invalidationCount, long size) {
+            this.hitCount = stats.hitCount();
+            this.missCount = stats.missCount();
+            this.hitRate = stats.hitRate();
+            this.evictionCount = stats.evictionCount();
+            this.invalidationCount = invalidationCount;
+            this.size = size;
+        }
+    }
+}
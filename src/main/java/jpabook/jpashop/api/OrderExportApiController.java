@@ -0,0 +1,43 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.OrderExportFormat;
+import jpabook.jpashop.Service.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderExportApiController {
+
+    private final OrderExportService orderExportService;
+
+    /**
+     * 주문 전체 export (format : ndjson, csv)
+     * 조회 결과를 응답 바디로 바로 흘려보낸다. (스트리밍)
+     */
+    @GetMapping("/api/orders/export")
+    public void exportOrders(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                             HttpServletResponse response) throws IOException {
+        OrderExportFormat exportFormat;
+        try {
+            exportFormat = OrderExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders." + exportFormat.getExtension());
+
+        orderExportService.export(exportFormat, response.getOutputStream());
+    }
+}
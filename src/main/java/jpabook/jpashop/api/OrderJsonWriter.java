@@ -0,0 +1,122 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 주문 목록 JSON 직접 쓰기 (OrderApiController.OrderDto와 같은 JSON)
+ * 엔티티에서 값을 꺼내 JsonGenerator로 OutputStream에 바로 쓴다.
+ * - OrderDto / OrderItemDto와 그 List를 만들지 않는다.
+ * - 리플렉션(BeanSerializer) 대신 필드를 순서대로 직접 쓴다.
+ * - 필드 이름은 미리 인코딩해 둔 SerializedString을 재사용한다. (매번 이스케이프 / UTF-8 변환 x)
+ * 주문시간은 spring.jackson.* 설정(date-format, WRITE_DATES_AS_TIMESTAMPS 등)과 상관없이 항상 ISO-8601 문자열이다.
+ * (스프링 부트 기본값과 같음) 날짜 설정을 바꾸면 v3.2만 다른 형식이 되므로 writeDateTime도 함께 바꿔야 한다.
+ */
+@Component
+public class OrderJsonWriter {
+
+    private static final SerializableString ORDER_ID = new SerializedString("orderId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializableString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString STREET = new SerializedString("street");
+    private static final SerializableString ZIPCODE = new SerializedString("zipcode");
+    private static final SerializableString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializableString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializableString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializableString COUNT = new SerializedString("count");
+
+    private final JsonFactory jsonFactory;
+
+    public OrderJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 주문 목록을 JSON 배열로 쓴다. 지연 로딩이 남아 있으면 쓰는 중에 조회된다. (OSIV)
+     * out은 닫지 않는다.
+     */
+    public void write(List<Order> orders, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (Order order : orders) {
+                writeOrder(generator, order);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeOrder(JsonGenerator generator, Order order) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ORDER_ID);
+        writeNumber(generator, order.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(order.getMember().getName());
+        generator.writeFieldName(ORDER_DATE);
+        writeDateTime(generator, order.getOrderDate());
+        generator.writeFieldName(ORDER_STATUS);
+        generator.writeString(order.getStatus() == null ? null : order.getStatus().name());
+        generator.writeFieldName(ADDRESS);
+        writeAddress(generator, order.getDelivery().getAddress());
+        generator.writeFieldName(ORDER_ITEMS);
+        generator.writeStartArray();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            generator.writeStartObject();
+            generator.writeFieldName(ITEM_NAME);
+            generator.writeString(orderItem.getItem().getName());
+            generator.writeFieldName(ORDER_PRICE);
+            generator.writeNumber(orderItem.getOrderPrice());
+            generator.writeFieldName(COUNT);
+            generator.writeNumber(orderItem.getCount());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeAddress(JsonGenerator generator, Address address) throws IOException {
+        if (address == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(CITY);
+        generator.writeString(address.getCity());
+        generator.writeFieldName(STREET);
+        generator.writeString(address.getStreet());
+        generator.writeFieldName(ZIPCODE);
+        generator.writeString(address.getZipcode());
+        generator.writeEndObject();
+    }
+
+    private void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    // 스프링 부트 기본 ObjectMapper와 같은 형식 (WRITE_DATES_AS_TIMESTAMPS 끔 -> ISO-8601 문자열)
+    // ObjectMapper 설정을 따르지 않는다. (클래스 주석 참고)
+    private void writeDateTime(JsonGenerator generator, LocalDateTime value) throws IOException {
+        generator.writeString(value == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+    }
+}
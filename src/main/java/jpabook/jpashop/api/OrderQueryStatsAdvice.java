@@ -0,0 +1,45 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitoring.NPlusOne;
+import jpabook.jpashop.monitoring.QueryMetricsRegistry;
+import jpabook.jpashop.monitoring.QueryStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 주문 API 응답 헤더에 쿼리 통계를 붙인다.
+ * 헤더는 JSON을 쓰기 전에 붙여야 하므로, JSON 생성 중의 지연 로딩(V1, V2)은 헤더에는 빠지고 /api/metrics/queries 에만 포함된다.
+ */
+@RestControllerAdvice(assignableTypes = {OrderApiController.class, OrderSimpleApiController.class})
+@RequiredArgsConstructor
+public class OrderQueryStatsAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_STATS_HEADER = "X-Query-Stats";
+
+    private final QueryMetricsRegistry queryMetricsRegistry;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            NPlusOne nPlusOne = queryMetricsRegistry.detect(stats);
+            response.getHeaders().add(QUERY_STATS_HEADER, String.format("statements=%d, entities=%d, collections=%d, jdbc-us=%d, n-plus-one=%s",
+                    stats.getStatements(), stats.getEntitiesLoaded(), stats.getCollectionsFetched(),
+                    stats.getJdbcNanos() / 1000, nPlusOne == null ? "no" : nPlusOne.getCount()));
+        }
+        return body;
+    }
+}
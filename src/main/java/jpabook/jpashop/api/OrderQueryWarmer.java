@@ -0,0 +1,60 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 조회 쿼리 미리 실행 (시작 직후 첫 요청 지연 줄이기)
+ * JPQL/QueryDSL -> SQL 변환 결과(쿼리 계획 캐시), 엔티티 로더, DTO 생성자 조회가 첫 실행 때 만들어지므로
+ * 페이징이 되는 조회를 1건씩만 실행해 둔다. (데이터가 많아도 비용이 일정하다.)
+ */
+@Slf4j
+@Component
+public class OrderQueryWarmer {
+
+    private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    public OrderQueryWarmer(OrderRepository orderRepository, OrderQueryRepository orderQueryRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${jpashop.warm-up.enabled:true}") boolean enabled) {
+        this.orderRepository = orderRepository;
+        this.orderQueryRepository = orderQueryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                orderRepository.findAllWithMemberDelivery(0, 1); // /api/v3.1/orders
+                orderRepository.findAllWithMemberDelivery(new OrderCursor(LocalDateTime.now(), Long.MAX_VALUE), 1); // /api/v3.1/orders?cursor=
+                orderQueryRepository.findAllByDto_flat(0, 1); // /api/v6.1/orders
+                orderRepository.findAll(new OrderSearch(), PageRequest.of(0, 1)); // /orders
+            });
+            log.info("order queries warmed up in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("order query warm-up failed", e); // 시작은 계속한다.
+        }
+    }
+}
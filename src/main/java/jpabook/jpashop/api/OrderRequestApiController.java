@@ -0,0 +1,78 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.OrderPipeline;
+import jpabook.jpashop.Service.OrderRequestService;
+import jpabook.jpashop.domain.OrderRequest;
+import jpabook.jpashop.domain.OrderRequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 비동기 주문 API : 접수하면 202(Accepted)와 요청 id를 돌려주고, 처리 결과는 요청 id로 조회한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OrderRequestApiController {
+
+    private final OrderPipeline orderPipeline;
+    private final OrderRequestService orderRequestService;
+
+    @PostMapping("/api/v1/order-requests")
+    public ResponseEntity<OrderRequestDto> request(@RequestBody CreateOrderRequest request) {
+        Long requestId;
+        try {
+            requestId = orderPipeline.submit(request.getMemberId(), request.getItemId(), request.getCount());
+        } catch (IllegalStateException e) { // 사용 안 함 / 대기열 가득 참 : 잠시 후 다시 요청
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new OrderRequestDto(requestId, OrderRequestStatus.PENDING, null, null));
+    }
+
+    @GetMapping("/api/v1/order-requests/{id}")
+    public ResponseEntity<OrderRequestDto> status(@PathVariable("id") Long id) {
+        OrderRequest request = orderRequestService.findOne(id);
+        if (request == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new OrderRequestDto(request.getId(), request.getStatus(), request.getOrderId(), request.getFailureReason()));
+    }
+
+    // 대기열 상태
+    @GetMapping("/api/v1/order-requests/stats")
+    public PipelineStatsDto stats() {
+        return new PipelineStatsDto(orderPipeline.isEnabled(), orderPipeline.getQueued(), orderPipeline.getAccepted(),
+                orderPipeline.getCompleted(), orderPipeline.getFailed(), orderPipeline.getBatches());
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        private Long memberId;
+        private Long itemId;
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderRequestDto {
+        private Long requestId;
+        private OrderRequestStatus status;
+        private Long orderId;
+        private String failureReason;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PipelineStatsDto {
+        private boolean enabled;
+        private int queued;
+        private long accepted;
+        private long completed;
+        private long failed;
+        private long batches;
+    }
+}
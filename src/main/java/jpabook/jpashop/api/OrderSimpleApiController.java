@@ -3,6 +3,7 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.*;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
 import lombok.Data;
@@ -26,6 +27,7 @@ import static java.util.stream.Collectors.toList;
 public class OrderSimpleApiController {
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderDtoCache orderDtoCache;
     /**
      * V1. 엔티티 직접 노출 (사용해선 안됨)
      * - Hibernate5Module 모듈 등록, LAZY=null 처리
@@ -77,7 +79,7 @@ public class OrderSimpleApiController {
      */
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
-        return orderSimpleQueryRepository.findOrderDtos();
+        return orderDtoCache.get(OrderDtoCache.SIMPLE_ORDERS, orderSimpleQueryRepository::findOrderDtos); // 주문/취소 커밋 전까지 캐시
     }
 
     @Data
@@ -0,0 +1,52 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.OrderSummaryService;
+import jpabook.jpashop.domain.OrderDailyRollup;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderSummaryApiController {
+
+    private final OrderSummaryService orderSummaryService;
+
+    /**
+     * 일별/상태별 주문 수, 매출, 판매 수량 (미리 집계된 값, order_item을 다시 합산하지 않는다.)
+     */
+    @GetMapping("/api/orders/summary/daily")
+    public List<DailyRollupDto> daily(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return orderSummaryService.findDailyRollups(from, to).stream()
+                .map(DailyRollupDto::new)
+                .collect(toList());
+    }
+
+    @Data
+    static class DailyRollupDto {
+        private LocalDate day;
+        private OrderStatus status;
+        private long orderCount;
+        private long totalPrice;
+        private long itemCount;
+
+        public DailyRollupDto(OrderDailyRollup rollup) {
+            this.day = rollup.getId().getDay();
+            this.status = rollup.getId().getStatus();
+            this.orderCount = rollup.getOrderCount();
+            this.totalPrice = rollup.getTotalPrice();
+            this.itemCount = rollup.getItemCount();
+        }
+    }
+}
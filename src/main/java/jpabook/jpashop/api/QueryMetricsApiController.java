@@ -0,0 +1,67 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitoring.EndpointQueryMetrics;
+import jpabook.jpashop.monitoring.Log2Histogram;
+import jpabook.jpashop.monitoring.QueryMetricsRegistry;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryMetricsApiController {
+
+    private final QueryMetricsRegistry queryMetricsRegistry;
+
+    /**
+     * 주문 API별 쿼리 지표 (요청 수, 쿼리 수, 엔티티 로딩 수, 컬렉션 초기화 수, JDBC 시간, N+1 의심 SQL)
+     */
+    @GetMapping("/api/metrics/queries")
+    public Map<String, EndpointDto> queries() {
+        Map<String, EndpointDto> result = new LinkedHashMap<>();
+        queryMetricsRegistry.snapshot().forEach((endpoint, metrics) -> result.put(endpoint, new EndpointDto(metrics)));
+        return result;
+    }
+
+    @Data
+    static class EndpointDto {
+        private long requests;
+        private HistogramDto latencyMicros;
+        private HistogramDto statements;
+        private HistogramDto entitiesLoaded;
+        private HistogramDto collectionsFetched;
+        private HistogramDto jdbcMicros;
+        private long repeatedSqlRequests; // N+1 의심 요청 수
+        private Map<String, Long> repeatedSql;
+
+        public EndpointDto(EndpointQueryMetrics metrics) {
+            this.requests = metrics.getLatencyMicros().count();
+            this.latencyMicros = new HistogramDto(metrics.getLatencyMicros());
+            this.statements = new HistogramDto(metrics.getStatements());
+            this.entitiesLoaded = new HistogramDto(metrics.getEntitiesLoaded());
+            this.collectionsFetched = new HistogramDto(metrics.getCollectionsFetched());
+            this.jdbcMicros = new HistogramDto(metrics.getJdbcMicros());
+            this.repeatedSqlRequests = metrics.getNPlusOneRequests().sum();
+            this.repeatedSql = metrics.getNPlusOneSql();
+        }
+    }
+
+    @Data
+    static class HistogramDto {
+        private double mean;
+        private long p50;
+        private long p99;
+        private long max;
+
+        public HistogramDto(Log2Histogram histogram) {
+            this.mean = histogram.mean();
+            this.p50 = histogram.percentile(0.5);
+            this.p99 = histogram.percentile(0.99);
+            this.max = histogram.max();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.monitoring.QueryStats;
+import jpabook.jpashop.web.AsyncApiHandlerAdapter;
+import jpabook.jpashop.web.EndpointBulkhead;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * JSON API(jpabook.jpashop.api) 핸들러를 전용 스레드풀에서 실행 (async-api 프로필, application-async-api.yml)
+ * Tomcat 스레드는 요청을 넘기고 바로 반환되므로, 느린 API에 요청이 몰려도 다른 API 요청을 계속 받는다.
+ * 실제로 동시에 DB를 쓰는 수는 API별 bulkhead로 커넥션 풀 크기까지만 허용한다.
+ */
+@Configuration
+@Profile("async-api")
+@EnableConfigurationProperties(ApiExecutionProperties.class)
+public class ApiExecutionConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor apiExecutor(ApiExecutionProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("api-");
+        executor.setTaskDecorator(QueryStats::propagate); // 요청별 쿼리 통계를 작업 스레드로 전달
+        return executor;
+    }
+
+    @Bean
+    public EndpointBulkhead endpointBulkhead(ApiExecutionProperties properties) {
+        ApiExecutionProperties.Bulkhead bulkhead = properties.getBulkhead();
+        return new EndpointBulkhead(bulkhead.getDefaultPermits(), bulkhead.getMaxWait(), bulkhead.getPermits());
+    }
+
+    /**
+     * DispatcherServlet은 등록된 HandlerAdapter를 order 순으로 찾으므로 RequestMappingHandlerAdapter보다 먼저 선택된다.
+     */
+    @Bean
+    public AsyncApiHandlerAdapter asyncApiHandlerAdapter(RequestMappingHandlerAdapter requestMappingHandlerAdapter,
+                                                         ThreadPoolTaskExecutor apiExecutor,
+                                                         EndpointBulkhead endpointBulkhead,
+                                                         ApiExecutionProperties properties) {
+        return new AsyncApiHandlerAdapter(requestMappingHandlerAdapter, apiExecutor, endpointBulkhead,
+                properties.getTimeout(), "jpabook.jpashop.api");
+    }
+}
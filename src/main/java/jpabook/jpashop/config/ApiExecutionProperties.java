@@ -0,0 +1,29 @@
+package jpabook.jpashop.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * API 실행 설정 (jpashop.api-execution.*, async-api 프로필)
+ */
+@Getter @Setter
+@ConfigurationProperties("jpashop.api-execution")
+public class ApiExecutionProperties {
+
+    private int threads = 64; // API 핸들러 실행 스레드 수
+    private int queueCapacity = 1000;
+    private Duration timeout = Duration.ofSeconds(30); // 응답 제한 시간 (넘으면 503)
+    private Bulkhead bulkhead = new Bulkhead();
+
+    @Getter @Setter
+    public static class Bulkhead {
+        private int defaultPermits = 10; // API별 동시 실행 수 (커넥션 풀 크기)
+        private Duration maxWait = Duration.ofMillis(100); // 자리가 날 때까지 기다리는 시간 (넘으면 503)
+        private Map<String, Integer> permits = new HashMap<>(); // "컨트롤러#메서드" -> 동시 실행 수
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.monitoring.QueryStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 조회 쿼리 병렬 실행용 스레드풀 (ReadOnlyQueryExecutor : InClauseBatchLoader, OrderQueryRepository)
+ * 스레드 하나가 커넥션 하나를 쓰므로 parallelism은 커넥션 풀(spring.datasource.hikari.maximum-pool-size)보다 충분히 작게 잡는다.
+ *
+ * open-in-view(기본값 true)면 요청 스레드는 첫 조회 후 응답이 끝날 때까지 커넥션을 잡고 있고, 작업 스레드의 결과를 기다리는 동안에도 놓지 않는다.
+ * 작업 스레드의 조회는 커넥션이 하나 더 필요하므로, 결과를 기다리는 요청이 풀을 다 차지하면 서로 커넥션을 기다리다
+ * 커넥션 타임아웃(30초)으로 실패한다. 그래서 동시에 넘기는 조회 수를 parallelism개로 제한하고(ReadOnlyQueryExecutor),
+ * 자리가 없으면 기다리지 않고 요청 스레드의 커넥션으로 순서대로 조회한다. 결과를 기다리며 커넥션을 잡고 있는 요청은 많아야 parallelism개이고,
+ * 나머지 커넥션은 기다리지 않고 끝나는 요청들이 쓰고 돌려주므로 작업 스레드도 결국 커넥션을 받는다.
+ * 스레드풀이 작업을 받지 않을 때도(AbortPolicy) 같은 방식으로 호출한 스레드에서 실행한다. (CallerRunsPolicy처럼 요청 스레드에서 새 트랜잭션 / 커넥션을 열지 않는다)
+ */
+@Configuration
+public class QueryExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor queryExecutor(@Value("${jpashop.query.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism * 16);
+        executor.setThreadNamePrefix("query-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(QueryStats::propagate); // 요청별 쿼리 통계를 작업 스레드로 전달
+        return executor;
+    }
+}
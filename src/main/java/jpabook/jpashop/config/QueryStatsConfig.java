@@ -0,0 +1,43 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderSimpleApiController;
+import jpabook.jpashop.monitoring.QueryMetricsRegistry;
+import jpabook.jpashop.monitoring.QueryStatsInspector;
+import jpabook.jpashop.monitoring.QueryStatsInterceptor;
+import jpabook.jpashop.monitoring.QueryStatsSessionListener;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+/**
+ * 주문 API 요청별 쿼리 지표 (jpabook.jpashop.monitoring)
+ * generate_statistics / p6spy 로그 대신 운영에서도 켜 둘 수 있는 가벼운 계측
+ */
+@Configuration
+@RequiredArgsConstructor
+public class QueryStatsConfig implements WebMvcConfigurer {
+
+    private final QueryMetricsRegistry queryMetricsRegistry;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryStatsInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryStatsInterceptor(queryMetricsRegistry,
+                Set.of(OrderApiController.class, OrderSimpleApiController.class)))
+                .addPathPatterns("/api/**");
+    }
+}
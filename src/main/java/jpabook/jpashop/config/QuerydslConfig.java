@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManager;
+
+/**
+ * JPAQueryFactory를 하나만 만들어서 공유한다.
+ * 주입받은 EntityManager는 트랜잭션마다 실제 EntityManager로 연결해주는 프록시이므로 여러 스레드에서 써도 안전하다.
+ */
+@Configuration
+public class QuerydslConfig {
+
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager em) {
+        return new JPAQueryFactory(em);
+    }
+}
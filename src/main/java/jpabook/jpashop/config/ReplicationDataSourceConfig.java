@@ -0,0 +1,70 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 DataSource 분리 (replication 프로파일, application-replication.yml)
+ * - @Transactional(readOnly = true) -> 복제 DB 중 하나
+ * - 그 외 (쓰기 트랜잭션, 트랜잭션 밖 지연 로딩, DDL) -> 주 DB
+ *
+ * 복제 지연이 있으므로 방금 쓴 데이터를 바로 읽어야 하는 경우에는 쓰기 트랜잭션 안에서 읽는다.
+ * (readOnly 트랜잭션이 쓰기 트랜잭션에 참여하면 쓰기 트랜잭션의 커넥션을 그대로 쓴다.)
+ */
+@Configuration
+@Profile("replication")
+@EnableConfigurationProperties(ReplicationDataSourceProperties.class)
+public class ReplicationDataSourceConfig {
+
+    /**
+     * 트랜잭션 시작 시에는 프록시 커넥션만 돌려주고, 실제 커넥션은 첫 쿼리 때 (readOnly 여부가 정해진 뒤) 가져온다.
+     * 라우팅 DataSource는 빈으로 따로 등록하지 않는다. DataSource 빈이 하나 더 있으면 스키마 초기화(DataSourceInitializerInvoker)가
+     * 그 빈을 후처리하면서 아직 생성 중인 dataSource를 찾아 순환 참조가 된다.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationDataSourceProperties properties) {
+        HikariDataSource primary = pool(properties.getPrimary(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(pool(properties.getReplicas().get(i), "replica-" + i));
+        }
+        ReplicationRoutingDataSource routingDataSource = new ReplicationRoutingDataSource(primary, replicas);
+        routingDataSource.afterPropertiesSet();
+        return new ReplicationDataSource(routingDataSource);
+    }
+
+    private HikariDataSource pool(HikariConfig config, String name) {
+        if (config.getPoolName() == null) {
+            config.setPoolName(name);
+        }
+        return new HikariDataSource(config);
+    }
+
+    static class ReplicationDataSource extends LazyConnectionDataSourceProxy {
+
+        private final ReplicationRoutingDataSource routingDataSource;
+
+        ReplicationDataSource(ReplicationRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        /**
+         * 빈 종료 시 커넥션 풀 정리 (@Bean destroyMethod 추론)
+         */
+        public void close() {
+            routingDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.datasource.primary / jpashop.datasource.replicas[n]
+ * 각 항목은 HikariConfig 속성 (jdbc-url, username, password, maximum-pool-size ...)
+ */
+@Getter @Setter
+@ConfigurationProperties("jpashop.datasource")
+public class ReplicationDataSourceProperties {
+
+    private HikariConfig primary = new HikariConfig();
+    private List<HikariConfig> replicas = new ArrayList<>();
+}
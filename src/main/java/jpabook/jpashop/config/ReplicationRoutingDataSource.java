@@ -0,0 +1,56 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션 -> 복제 DB (라운드 로빈), 그 외 -> 주 DB
+ *
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 TransactionSynchronizationManager에 등록되기 전이므로
+ * 반드시 LazyConnectionDataSourceProxy로 감싸서 첫 쿼리 시점에 커넥션을 고르게 해야 한다. (ReplicationDataSourceConfig)
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        pools.add(primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+            pools.add(replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int index = Math.floorMod(counter.getAndIncrement(), replicaKeys.size());
+        return replicaKeys.get(index);
+    }
+
+    /**
+     * 커넥션 풀 정리 (ReplicationDataSourceConfig.ReplicationDataSource 종료 시)
+     */
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,12 @@
+package jpabook.jpashop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 작업 (OrderCountStatistics 갱신 등)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,38 +1,55 @@
 package jpabook.jpashop.domain;
 
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시
 @Getter @Setter
 public class Category {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "category_seq")
+    @GenericGenerator(name = "category_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "category_seq"))
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 컬렉션 캐시 : item id 목록만 저장
     @ManyToMany
     @JoinTable(name = "category_item",
         joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id"))
+            inverseJoinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_category_item_category", columnList = "category_id")) // 하위 카테고리 상품 조회
     private List<Item> items = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
     //==연관관계 메서드==//
+    // 계층 테이블(category_closure)은 CategoryService.addChildCategory에서 함께 갱신한다.
     public void addChildCategory(Category child) {
+        if (child.getParent() != null) { // 다른 카테고리 아래로 이동
+            child.getParent().getChild().remove(child);
+        }
         this.child.add(child);
         child.setParent(this);
     }
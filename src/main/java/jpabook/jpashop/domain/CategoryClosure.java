@@ -0,0 +1,32 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 카테고리 계층 (closure table) : 모든 (상위, 하위) 쌍을 한 행씩 저장한다. 자기 자신도 depth 0으로 포함.
+ * "이 카테고리 아래 전부"를 계층 깊이와 상관없이 ancestor_id 조건 한 번으로 찾는다. (PK 앞부분 = ancestor_id)
+ * 카테고리를 추가/이동할 때 CategoryRepository가 함께 갱신한다.
+ */
+@Entity
+@Table(name = "category_closure", indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id")) // 상위 카테고리 조회
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosure {
+
+    @EmbeddedId
+    private CategoryClosureId id;
+
+    private int depth;
+
+    public CategoryClosure(Long ancestorId, Long descendantId, int depth) {
+        this.id = new CategoryClosureId(ancestorId, descendantId);
+        this.depth = depth;
+    }
+}
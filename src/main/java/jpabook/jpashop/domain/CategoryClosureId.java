@@ -0,0 +1,31 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+/**
+ * 카테고리 계층 키 (상위 카테고리 id, 하위 카테고리 id)
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosureId implements Serializable {
+
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    public CategoryClosureId(Long ancestorId, Long descendantId) {
+        this.ancestorId = ancestorId;
+        this.descendantId = descendantId;
+    }
+}
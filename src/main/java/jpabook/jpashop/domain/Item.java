@@ -1,49 +1,56 @@
 package jpabook.jpashop.domain;
 
-import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시 : Book, Album, Movie도 이 캐시를 함께 사용
+@DynamicUpdate // 가격/이름만 바꿀 때 읽어둔 재고를 UPDATE에 다시 쓰지 않는다.
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @Getter @Setter
 @DiscriminatorColumn(name = "dtype")
 public abstract class Item {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "item_seq")
+    @GenericGenerator(name = "item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_seq"))
     @Column(name = "item_id")
     private Long id;
 
     private String name;
     private int price;
+
+    /*
+     재고는 ItemRepository의 재고 UPDATE(removeStock / addStock / updateStock)로만 바꾼다.
+     엔티티를 읽고-수정-쓰기 하면 동시에 주문할 때 서로의 변경을 덮어써서 초과 판매가 생기고,
+     2차 캐시에서 읽은 엔티티의 재고는 DB보다 예전 값일 수 있다.
+     저장된 상품의 재고를 setter로 바꾸면 예외 (변경감지로 덮어쓰거나 조용히 버리지 않는다)
+     */
     private int stockQuantity;
 
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
-    //==비즈니스로직==// 응집력up
-
     /**
-     * stock 증가
+     * 처음 저장할 때의 재고
      */
-    public void addStock(int quantity) {
-        this.stockQuantity += quantity;
-    }
-
-    /**
-     * stock 감소
-     */
-    public void removeStock(int quantity) {
-        int restStock = this.stockQuantity - quantity;
-
-        if (restStock < 0) {
-            throw new NotEnoughStockException("need more stock");
+    public void setStockQuantity(int stockQuantity) {
+        if (id != null) {
+            throw new IllegalStateException("저장된 상품의 재고는 ItemService.updateItem으로 변경해야 합니다. id=" + id);
         }
-
-        this.stockQuantity = restStock;
+        this.stockQuantity = stockQuantity;
     }
 }
@@ -1,8 +1,12 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
@@ -11,10 +15,14 @@ import java.util.List;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_name", columnNames = "name")) // 이름 중복 방지 + 이름 일치/앞부분 일치 검색 (유니크 인덱스)
 @Getter @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
@@ -1,9 +1,13 @@
 package jpabook.jpashop.domain;
 
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -11,12 +15,33 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = { // columnList는 논리 컬럼명 (@Column name이 없으면 필드명)
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, order_id"), // 키셋 페이징, 주문일 조회
+        @Index(name = "idx_orders_status_order_date", columnList = "status, orderDate") // 주문상태 검색
+})
+@NamedQueries({ // 주문 검색 조건 조합별 쿼리 (OrderRepository.findAllByString)
+        @NamedQuery(name = Order.SEARCH_ALL,
+                query = "select o from Order o join o.member m"),
+        @NamedQuery(name = Order.SEARCH_BY_STATUS,
+                query = "select o from Order o join o.member m where o.status = :status"),
+        @NamedQuery(name = Order.SEARCH_BY_NAME,
+                query = "select o from Order o join o.member m where m.name like :name"),
+        @NamedQuery(name = Order.SEARCH_BY_STATUS_AND_NAME,
+                query = "select o from Order o join o.member m where o.status = :status and m.name like :name")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    public static final String SEARCH_ALL = "Order.search";
+    public static final String SEARCH_BY_STATUS = "Order.searchByStatus";
+    public static final String SEARCH_BY_NAME = "Order.searchByName";
+    public static final String SEARCH_BY_STATUS_AND_NAME = "Order.searchByStatusAndName";
+
+    @Id
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq"))
     @Column(name = "order_id")
     private Long id;
 
@@ -79,9 +104,7 @@ public class Order {
 
         //배송완료가 아닐 때
         this.setStatus(OrderStatus.CANCEL); // 주문 상태 변경
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel(); // 여러개의 상품의 경우, 각각 아이템을 취소
-        }
+        // 재고 복구는 OrderService.cancelOrder에서 UPDATE로 (Item.stockQuantity 참고)
     }
 
     //==조회 로직==//
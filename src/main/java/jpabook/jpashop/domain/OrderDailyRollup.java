@@ -0,0 +1,34 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * 일별/상태별 주문 집계 : 주문 수, 매출, 판매 수량
+ * 주문/취소 시 UPDATE ... set order_count = order_count + ? 로 누적하므로 조회는 PK 한 번이다. (OrderSummaryRepository)
+ */
+@Entity
+@Table(name = "order_daily_rollup")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderDailyRollup {
+
+    @EmbeddedId
+    private OrderDailyRollupId id;
+
+    private long orderCount;
+    private long totalPrice;
+    private long itemCount;
+
+    public OrderDailyRollup(OrderDailyRollupId id, long orderCount, long totalPrice, long itemCount) {
+        this.id = id;
+        this.orderCount = orderCount;
+        this.totalPrice = totalPrice;
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별 주문 집계 키 (일자, 주문상태)
+ */
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderDailyRollupId implements Serializable {
+
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    public OrderDailyRollupId(LocalDate day, OrderStatus status) {
+        this.day = day;
+        this.status = status;
+    }
+}
@@ -1,10 +1,14 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
@@ -14,7 +18,10 @@ import javax.persistence.*;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
+    @GenericGenerator(name = "order_item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_item_seq"))
     @Column(name = "order_item_id")
     private Long id;
 
@@ -45,17 +52,10 @@ public class OrderItem {
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.removeStock(count);
-
+        // 재고 차감은 OrderService에서 조건부 UPDATE로 (Item.stockQuantity 참고)
         return orderItem;
     }
 
-    //==비즈니스 로직==//
-    public void cancel() {
-        getItem().addStock(count); // 주문했던 수량에 대해 다시 재고에 넣어줌
-    }
-
     //==조회 로직==//
     /**
      * 주문상품 전체 가격 조회
@@ -0,0 +1,68 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 접수된 주문 요청 (outbox) : 비동기 주문에서 요청을 먼저 커밋해 두고, 작업 스레드가 주문으로 처리한다. (OrderPipeline)
+ * 처리 전에 서버가 내려가도 PENDING 상태로 남아 있으므로 다시 시작할 때 이어서 처리한다.
+ */
+@Entity
+@Table(name = "order_request", indexes = @Index(name = "idx_order_request_status", columnList = "status, order_request_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderRequest {
+
+    @Id
+    @GeneratedValue(generator = "order_request_seq")
+    @GenericGenerator(name = "order_request_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_request_seq"))
+    @Column(name = "order_request_id")
+    private Long id;
+
+    private Long memberId;
+    private Long itemId;
+    private int count;
+
+    @Enumerated(EnumType.STRING)
+    private OrderRequestStatus status; // [PENDING, COMPLETED, FAILED]
+
+    private Long orderId; // 처리된 주문
+
+    private String failureReason;
+
+    private LocalDateTime requestedAt;
+    private LocalDateTime processedAt;
+
+    //==생성 메서드==//
+    public static OrderRequest create(Long memberId, Long itemId, int count) {
+        OrderRequest request = new OrderRequest();
+        request.memberId = memberId;
+        request.itemId = itemId;
+        request.count = count;
+        request.status = OrderRequestStatus.PENDING;
+        request.requestedAt = LocalDateTime.now();
+        return request;
+    }
+
+    //==비즈니스 로직==//
+    public void complete(Long orderId) {
+        this.orderId = orderId;
+        this.status = OrderRequestStatus.COMPLETED;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    public void fail(String reason) {
+        this.failureReason = reason == null || reason.length() <= 255 ? reason : reason.substring(0, 255);
+        this.status = OrderRequestStatus.FAILED;
+        this.processedAt = LocalDateTime.now();
+    }
+}
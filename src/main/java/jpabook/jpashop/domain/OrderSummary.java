@@ -0,0 +1,57 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 요약 (주문 1건당 1행) : 대시보드에서 Order.getTotalPrice()로 orderItems를 지연 로딩하지 않도록
+ * 주문/취소 트랜잭션 안에서 같이 저장/변경한다. (OrderSummaryRepository)
+ */
+@Entity
+@Table(name = "order_summary", indexes = @Index(name = "idx_order_summary_member", columnList = "member_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId; // Order와 같은 id
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String memberName;
+
+    private long totalPrice;
+
+    private int itemCount; // 주문 수량 합계
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime orderDate;
+
+    //==생성 메서드==//
+    public static OrderSummary of(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            summary.totalPrice += orderItem.getTotalPrice();
+            summary.itemCount += orderItem.getCount();
+        }
+        summary.status = order.getStatus();
+        summary.orderDate = order.getOrderDate();
+        return summary;
+    }
+
+    //==비즈니스 로직==//
+    public void cancel() {
+        this.status = OrderStatus.CANCEL;
+    }
+}
@@ -1,11 +1,18 @@
 package jpabook.jpashop;
 
 import jpabook.jpashop.domain.*;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
+import jpabook.jpashop.repository.search.MemberNameIndex;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
 //조회용 샘플 데이터 입력
@@ -18,16 +25,34 @@ import javax.persistence.EntityManager;
  * userB
  * SPRING1 BOOK
  * SPRING2 BOOK
+ *
+ * 시작이 끝난 뒤(ApplicationReadyEvent) 입력한다. 회원이 이미 있으면 (ddl-auto: validate로 재시작) 건너뛴다.
+ * jpashop.init-db.async=true 이면 별도 스레드에서 입력해서 첫 요청을 막지 않는다. (prod 프로필)
  */
-
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class initDb {
 
     private final InitService initService;
 
-    @PostConstruct
+    @Value("${jpashop.init-db.async:false}")
+    private boolean async;
+
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
+        if (async) {
+            new SimpleAsyncTaskExecutor("init-db-").execute(this::insertSampleData);
+        } else {
+            insertSampleData();
+        }
+    }
+
+    private void insertSampleData() {
+        if (initService.hasMembers()) {
+            log.info("sample data skipped: members already exist");
+            return;
+        }
         initService.dbInit1();
         initService.dbInit2();
     }
@@ -37,24 +62,35 @@ public class initDb {
     @RequiredArgsConstructor
     static class InitService {
         private final EntityManager em;
+        private final OrderSummaryRepository orderSummaryRepository;
+        private final MemberNameIndex memberNameIndex;
+        private final OrderDtoCache orderDtoCache;
+
+        public boolean hasMembers() {
+            return !em.createQuery("select m.id from Member m", Long.class)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+        }
 
         public void dbInit1() {
             Member member = createMember("userA", "서울", "32", "1323");
             em.persist(member);
 
             Book book1 = createBook("JPA1 BOOK", 100, 10000);
-            em.persist(book1);
-
             Book book2 = createBook("JPA2 BOOK", 100, 20000);
-            em.persist(book2);
-
 
             OrderItem orderItem1 = OrderItem.createOrderItem(book1, 10000, 1);
             OrderItem orderItem2 = OrderItem.createOrderItem(book2, 20000, 2);
+            em.persist(book1); // 재고는 변경감지로 UPDATE 되지 않으므로 주문 수량을 뺀 뒤에 저장
+            em.persist(book2);
 
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            orderSummaryRepository.save(order);
+            memberNameIndex.putAfterCommit(member.getId(), member.getName()); // 인덱스 warmUp보다 늦게 커밋될 수 있다.
+            orderDtoCache.invalidateAfterCommit();
         }
 
         public void dbInit2() {
@@ -62,17 +98,19 @@ public class initDb {
             em.persist(member);
 
             Book book1 = createBook("SPRING BOOK", 100, 30000);
-            em.persist(book1);
-
             Book book2 = createBook("SPRING BOOK", 100, 40000);
-            em.persist(book2);
 
             OrderItem orderItem1 = OrderItem.createOrderItem(book1, 30000, 3);
             OrderItem orderItem2 = OrderItem.createOrderItem(book2, 40000, 4);
+            em.persist(book1);
+            em.persist(book2);
 
             Delivery delivery = createDelivery(member);
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            orderSummaryRepository.save(order);
+            memberNameIndex.putAfterCommit(member.getId(), member.getName());
+            orderDtoCache.invalidateAfterCommit();
         }
 
         private Delivery createDelivery(Member member) {
@@ -0,0 +1,36 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API 하나의 누적 쿼리 지표
+ */
+@Getter
+public class EndpointQueryMetrics {
+
+    private final Log2Histogram latencyMicros = new Log2Histogram();
+    private final Log2Histogram statements = new Log2Histogram();
+    private final Log2Histogram entitiesLoaded = new Log2Histogram();
+    private final Log2Histogram collectionsFetched = new Log2Histogram();
+    private final Log2Histogram jdbcMicros = new Log2Histogram();
+    private final LongAdder nPlusOneRequests = new LongAdder();
+    private final ConcurrentMap<String, Long> nPlusOneSql = new ConcurrentHashMap<>(); // SQL -> 한 요청에서 가장 많이 반복된 횟수
+
+    void record(QueryStats stats, long elapsedNanos, NPlusOne nPlusOne) {
+        latencyMicros.record(elapsedNanos / 1000);
+        statements.record(stats.getStatements());
+        entitiesLoaded.record(stats.getEntitiesLoaded());
+        collectionsFetched.record(stats.getCollectionsFetched());
+        jdbcMicros.record(stats.getJdbcNanos() / 1000);
+        if (nPlusOne != null) {
+            nPlusOneRequests.increment();
+            if (nPlusOneSql.size() < 20 || nPlusOneSql.containsKey(nPlusOne.getSql())) { // 크기 제한
+                nPlusOneSql.merge(nPlusOne.getSql(), nPlusOne.getCount(), Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 한 요청에서 같은 SQL이 threshold번 이상 실행된 경우 (파라미터만 다른 조회의 반복 = N+1 의심)
+ */
+@Getter
+public class NPlusOne {
+
+    private final String sql;
+    private final long count;
+
+    private NPlusOne(String sql, long count) {
+        this.sql = sql;
+        this.count = count;
+    }
+
+    /**
+     * @return N+1이 아니면 null
+     */
+    public static NPlusOne detect(QueryStats stats, int threshold) {
+        Map.Entry<String, Long> repeated = stats.mostRepeatedSql();
+        if (repeated == null || repeated.getValue() < threshold) {
+            return null;
+        }
+        return new NPlusOne(repeated.getKey(), repeated.getValue());
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * API별 쿼리 지표 모음 (QueryStatsInterceptor가 요청이 끝날 때 기록)
+ */
+@Component
+public class QueryMetricsRegistry {
+
+    private final ConcurrentMap<String, EndpointQueryMetrics> endpoints = new ConcurrentHashMap<>();
+    private final int nPlusOneThreshold;
+
+    public QueryMetricsRegistry(@Value("${jpashop.query-metrics.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public NPlusOne detect(QueryStats stats) {
+        return NPlusOne.detect(stats, nPlusOneThreshold);
+    }
+
+    public void record(String endpoint, QueryStats stats, long elapsedNanos) {
+        endpoints.computeIfAbsent(endpoint, k -> new EndpointQueryMetrics())
+                .record(stats, elapsedNanos, detect(stats));
+    }
+
+    public Map<String, EndpointQueryMetrics> snapshot() {
+        return new TreeMap<>(endpoints);
+    }
+}
@@ -0,0 +1,113 @@
+package jpabook.jpashop.monitoring;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 요청 하나에서 실행된 쿼리 통계
+ * 요청 스레드에 ThreadLocal로 묶어 두고 Hibernate 리스너들이 값을 올린다. (QueryStatsInspector, QueryStatsSessionListener, QueryStatsHibernateListener)
+ * 조회 전용 스레드풀(queryExecutor)로 넘어간 쿼리도 같은 요청으로 집계되도록 propagate로 전달하므로 스레드 안전하게 만든다.
+ */
+public class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder entitiesLoaded = new LongAdder();
+    private final LongAdder collectionsFetched = new LongAdder();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final Map<String, LongAdder> sqlCounts = new ConcurrentHashMap<>();
+
+    //==요청 스레드==//
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * 다른 스레드에서 시작한 통계를 이어서 기록 (비동기 요청이 다시 디스패치된 경우)
+     */
+    public static void attach(QueryStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 현재 요청의 통계를 다른 스레드에서 실행되는 작업에 전달 (ThreadPoolTaskExecutor.setTaskDecorator)
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    //==기록==//
+    void statement(String sql) {
+        statements.increment();
+        sqlCounts.computeIfAbsent(sql, k -> new LongAdder()).increment();
+    }
+
+    void entityLoaded() {
+        entitiesLoaded.increment();
+    }
+
+    void collectionFetched() {
+        collectionsFetched.increment();
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    //==조회==//
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded.sum();
+    }
+
+    public long getCollectionsFetched() {
+        return collectionsFetched.sum();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    /**
+     * 가장 많이 반복된 SQL (같은 SQL이 파라미터만 바꿔서 여러 번 실행되면 N+1 의심)
+     */
+    public Map.Entry<String, Long> mostRepeatedSql() {
+        String sql = null;
+        long max = 0;
+        for (Map.Entry<String, LongAdder> entry : sqlCounts.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > max) {
+                sql = entry.getKey();
+                max = count;
+            }
+        }
+        return sql == null ? null : new AbstractMap.SimpleImmutableEntry<>(sql, max);
+    }
+}
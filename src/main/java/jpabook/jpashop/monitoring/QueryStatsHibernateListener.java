@@ -0,0 +1,48 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 엔티티 로딩 수 / 컬렉션 초기화(지연 로딩) 수
+ * 기본 리스너 뒤에 추가하므로 로딩 동작은 바뀌지 않는다.
+ */
+@Component
+public class QueryStatsHibernateListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public QueryStatsHibernateListener(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.entityLoaded();
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.collectionFetched();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate가 준비하는 모든 SQL을 요청 통계에 기록 (hibernate.session_factory.statement_inspector)
+ * 추적 중인 요청이 아니면 ThreadLocal 조회 한 번으로 끝난다.
+ */
+public class QueryStatsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.statement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,65 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+
+/**
+ * 지정한 컨트롤러의 요청마다 쿼리 통계를 시작하고, 요청이 끝나면 (응답 JSON 생성 중 지연 로딩까지 포함) API별 지표에 기록한다.
+ * 비동기 요청(async-api 프로필)은 작업 스레드에 통계가 전달되고, 결과를 쓰는 디스패치에서 같은 통계를 이어 받아 한 번만 기록한다.
+ */
+public class QueryStatsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_NANOS = QueryStatsInterceptor.class.getName() + ".START_NANOS";
+    private static final String STATS = QueryStatsInterceptor.class.getName() + ".STATS";
+
+    private final QueryMetricsRegistry registry;
+    private final Set<Class<?>> controllers;
+
+    public QueryStatsInterceptor(QueryMetricsRegistry registry, Set<Class<?>> controllers) {
+        this.registry = registry;
+        this.controllers = controllers;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && controllers.contains(((HandlerMethod) handler).getBeanType())) {
+            QueryStats started = (QueryStats) request.getAttribute(STATS);
+            if (started != null) {
+                QueryStats.attach(started); // 비동기 처리 후 다시 디스패치 : 시작 시각, 통계 유지
+                return true;
+            }
+            request.setAttribute(STATS, QueryStats.start());
+            request.setAttribute(START_NANOS, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryStats.clear(); // 요청 스레드는 반환된다. 기록은 결과를 쓰는 디스패치의 afterCompletion에서
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryStats stats = QueryStats.current();
+        Long start = (Long) request.getAttribute(START_NANOS);
+        if (stats == null || start == null) {
+            return;
+        }
+        try {
+            registry.record(endpoint(request), stats, System.nanoTime() - start);
+        } finally {
+            QueryStats.clear();
+        }
+    }
+
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * JDBC 실행 시간 (hibernate.session.events.auto : 세션마다 Hibernate가 새로 만든다.)
+ * 세션은 한 스레드에서만 쓰이므로 시작 시각을 필드에 둔다.
+ */
+public class QueryStatsSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.jdbcTime(System.nanoTime() - start);
+        }
+    }
+}
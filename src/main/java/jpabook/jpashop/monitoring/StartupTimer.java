@@ -0,0 +1,51 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 시작 시간 측정 : JVM 시작부터 (1) 요청을 받을 준비가 된 시점, (2) 첫 요청 응답이 끝난 시점까지 걸린 시간을 로그로 남긴다.
+ * 프로필/설정을 바꿔 가며 두 값을 비교한다. (time-to-first-request)
+ */
+@Slf4j
+@Component
+public class StartupTimer extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        log.info("application ready {} ms after JVM start", sinceJvmStart());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!firstRequest.get() || !firstRequest.compareAndSet(true, false)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            log.info("first request {} {} served in {} ms, {} ms after JVM start", request.getMethod(), request.getRequestURI(),
+                    (System.nanoTime() - start) / 1_000_000, sinceJvmStart());
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
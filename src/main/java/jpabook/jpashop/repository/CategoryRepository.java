@@ -0,0 +1,93 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryClosure;
+import jpabook.jpashop.domain.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 카테고리 저장 + 계층 테이블에 자기 자신(depth 0), 부모가 있으면 부모의 모든 상위 카테고리와의 관계를 추가
+     */
+    public void save(Category category) {
+        em.persist(category);
+        em.persist(new CategoryClosure(category.getId(), category.getId(), 0));
+        if (category.getParent() != null) {
+            attach(category.getParent().getId(), category.getId());
+        }
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 계층 테이블 갱신 : child(와 그 하위 전체)를 parent 아래로 옮긴다.
+     * 1. child 하위 전체와 child 바깥의 (예전) 상위 카테고리 사이의 관계를 지운다.
+     * 2. parent의 상위 전체(parent 포함) x child 하위 전체(child 포함) 관계를 추가한다.
+     */
+    public void attach(Long parentId, Long childId) {
+        em.flush(); // 네이티브 쿼리 전에 아직 INSERT 안 된 계층 행 반영
+        em.createNativeQuery("delete from category_closure" +
+                " where descendant_id in (select s.descendant_id from category_closure s where s.ancestor_id = :childId)" +
+                " and ancestor_id not in (select s.descendant_id from category_closure s where s.ancestor_id = :childId)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CategoryClosure.class)
+                .setParameter("childId", childId)
+                .executeUpdate();
+        em.createNativeQuery("insert into category_closure (ancestor_id, descendant_id, depth)" +
+                " select a.ancestor_id, d.descendant_id, a.depth + d.depth + 1" +
+                " from category_closure a, category_closure d" +
+                " where a.descendant_id = :parentId and d.ancestor_id = :childId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CategoryClosure.class)
+                .setParameter("parentId", parentId)
+                .setParameter("childId", childId)
+                .executeUpdate();
+    }
+
+    /**
+     * ancestorId가 categoryId 자신이거나 상위 카테고리인지
+     */
+    public boolean isAncestorOrSelf(Long ancestorId, Long categoryId) {
+        return !em.createQuery("select c.depth from CategoryClosure c" +
+                " where c.id.ancestorId = :ancestorId and c.id.descendantId = :categoryId", Integer.class)
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("categoryId", categoryId)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 카테고리와 모든 하위 카테고리의 상품 : 계층 깊이와 상관없이 쿼리 한 번 (category_closure PK -> category_item 인덱스)
+     */
+    public List<Item> findItemsInSubtree(Long categoryId, int offset, int limit) {
+        return em.createQuery(
+                "select distinct i from CategoryClosure cc, Category c" +
+                        " join c.items i" +
+                        " where cc.id.ancestorId = :categoryId and c.id = cc.id.descendantId" +
+                        " order by i.id", Item.class)
+                .setParameter("categoryId", categoryId)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 메모리 카테고리 트리용 (id, 이름, 부모 id)
+     */
+    public List<Object[]> findAllNodes() {
+        return em.createQuery("select c.id, c.name, p.id from Category c left join c.parent p", Object[].class)
+                .getResultList();
+    }
+}
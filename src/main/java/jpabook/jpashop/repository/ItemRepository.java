@@ -1,11 +1,22 @@
 package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.*;
+import jpabook.jpashop.repository.support.JdbcBatchUpdate;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.EntityManager;
-import java.time.LocalDateTime;
+import java.sql.Types;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,12 +25,15 @@ public class ItemRepository {
 
     private final EntityManager em;
 
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     // 상품 저장
     public void save(Item item) {
         if (item.getId() == null) { // 디비에 넣기 전에는 id가 없으므로 persist
             em.persist(item);
         } else {
             em.merge(item); // merge 사용 (item은 영속성컨텍스트로 들어가는게 아니고, em.merger(item)자체가 영속성컨텍스트에서 관리함.
+            // 재고도 변경감지로 그대로 덮어쓴다. 재고만 바꿀 때는 updateStock (Item.stockQuantity 참고)
         }
     }
 
@@ -27,9 +41,120 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.CACHEABLE, true) // 쿼리 캐시 : item 테이블이 바뀌면 자동 무효화
                 .getResultList();
     }
 
+    /**
+     * 재고 감소 : 조건부 UPDATE 한 번으로 확인과 감소를 동시에 한다.
+     * 재고가 부족하면 0건이 수정되므로 false. 동시에 주문해도 재고가 음수가 될 수 없다. (초과 판매 방지)
+     * 영속성 컨텍스트의 엔티티에는 반영되지 않는다. (벌크 연산)
+     */
+    public boolean removeStock(Long itemId, int quantity) {
+        return updateStockColumn("update item set stock_quantity = stock_quantity - :value" +
+                " where item_id = :itemId and stock_quantity >= :value", itemId, quantity) == 1;
+    }
+
+    /**
+     * 재고 증가 (주문 취소)
+     */
+    public void addStock(Long itemId, int quantity) {
+        updateStockColumn("update item set stock_quantity = stock_quantity + :value where item_id = :itemId",
+                itemId, quantity);
+    }
+
+    /**
+     * 재고 수량 변경 (상품 수정)
+     */
+    public void updateStock(Long itemId, int stockQuantity) {
+        updateStockColumn("update item set stock_quantity = :value where item_id = :itemId",
+                itemId, stockQuantity);
+    }
+
+    /**
+     * 가격/재고 일괄 수정 (카탈로그 반영) : 엔티티를 읽지 않고 JDBC batch UPDATE
+     * 가격/재고가 null이면 그 컬럼은 바꾸지 않는다. (PATCH)
+     * 실행 전 flush, 실행 후 영속성 컨텍스트를 비운다. (남아 있는 엔티티는 예전 값)
+     * 수정한 행이 많으므로 커밋 후 Item 2차 캐시와 쿼리 캐시(findAll)를 통째로 비운다.
+     */
+    public int updateAll(List<ItemUpdate> updates) {
+        em.flush();
+        int updated = JdbcBatchUpdate.execute(em,
+                "update item set price = coalesce(?, price), stock_quantity = coalesce(?, stock_quantity) where item_id = ?",
+                updates, (ps, update) -> {
+                    ps.setObject(1, update.getPrice(), Types.INTEGER);
+                    ps.setObject(2, update.getStockQuantity(), Types.INTEGER);
+                    ps.setObject(3, update.getItemId(), Types.BIGINT);
+                });
+        em.clear();
+        runAfterCommit(() -> {
+            em.getEntityManagerFactory().getCache().evict(Item.class);
+            em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        });
+        return updated;
+    }
+
+    /*
+     JPQL 벌크 UPDATE는 Item 2차 캐시 전체를 비운다. 주문마다 실행되면 캐시가 의미가 없으므로
+     네이티브 쿼리 + 별도 쿼리 스페이스(STOCK_QUERY_SPACE)로 실행하고, 수정한 상품의 캐시 항목만 잠근다.
+     이 쿼리 스페이스로는 자동 flush가 일어나지 않으므로 직접 flush 한다. (아직 INSERT 안 된 상품 등)
+     */
+    private int updateStockColumn(String sql, Long itemId, int value) {
+        em.flush();
+        lockCacheItem(itemId);
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .setParameter("value", value)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
+
+    /*
+     커밋 후에 캐시에서 빼기만 하면, 그 전에 예전 재고를 읽은 다른 트랜잭션이 빈 자리에 다시 넣을 수 있다.
+     변경감지 UPDATE와 같은 방식으로 UPDATE 전에 캐시 항목을 잠그고(soft lock) 트랜잭션이 끝나면 푼다. (READ_WRITE)
+     잠긴 동안, 그리고 풀리기 전에 시작한 세션이 DB에서 읽은 값은 캐시에 들어가지 않는다.
+     */
+    private void lockCacheItem(Long itemId) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Item.class);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object key = cacheAccess.generateCacheKey(itemId, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheAccess.unlockItem(session, key, lock);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) { // 커밋 / 롤백 모두
+                cacheAccess.unlockItem(session, key, lock);
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
 }
@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository;
+
+import lombok.Getter;
+
+/**
+ * 상품 일괄 수정 한 건 : 가격, 재고 (ItemService.updateItems)
+ * null인 값은 바꾸지 않는다.
+ */
+@Getter
+public class ItemUpdate {
+
+    private final Long itemId;
+    private final Integer price;
+    private final Integer stockQuantity;
+
+    public ItemUpdate(Long itemId, Integer price, Integer stockQuantity) {
+        this.itemId = itemId;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,9 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 회원명 검색 방식
+ */
+public enum MemberNameMatch {
+    CONTAINS, // 부분 일치 : 메모리 n-gram 인덱스 (MemberNameIndex), 사용할 수 없으면 like '%name%'
+    PREFIX // 앞부분 일치 : like 'name%' -> member.name 인덱스 범위 스캔
+}
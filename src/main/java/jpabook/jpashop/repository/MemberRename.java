@@ -0,0 +1,18 @@
+package jpabook.jpashop.repository;
+
+import lombok.Getter;
+
+/**
+ * 회원 이름 일괄 변경 한 건 (MemberService.renameMembers)
+ */
+@Getter
+public class MemberRename {
+
+    private final Long memberId;
+    private final String name;
+
+    public MemberRename(Long memberId, String name) {
+        this.memberId = memberId;
+        this.name = name;
+    }
+}
@@ -6,7 +6,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 //Spring Data JPA
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
     //select m from Member m where m.name = ? JPQL 쿼리 자동으로 실행
     List<Member> findByName(String name);
+
+    //select m.id from Member m where m.name = ? (엔티티를 읽지 않고 존재 여부만 확인)
+    boolean existsByName(String name);
 }
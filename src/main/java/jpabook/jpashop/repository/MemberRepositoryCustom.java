@@ -0,0 +1,9 @@
+package jpabook.jpashop.repository;
+
+import java.util.List;
+
+//Spring Data JPA 사용자 정의 메서드 (구현 : MemberRepositoryImpl)
+public interface MemberRepositoryCustom {
+
+    int renameAll(List<MemberRename> renames);
+}
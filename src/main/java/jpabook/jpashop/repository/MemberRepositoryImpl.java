@@ -0,0 +1,29 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.repository.support.JdbcBatchUpdate;
+import lombok.RequiredArgsConstructor;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberRepositoryImpl implements MemberRepositoryCustom {
+
+    private final EntityManager em;
+
+    /**
+     * 회원 이름 일괄 변경 (JDBC batch UPDATE)
+     * 영속성 컨텍스트에 남아 있는 회원은 예전 이름을 갖고 있으므로 실행 전 flush, 실행 후 clear 한다.
+     * 이미 있는 이름이면 유니크 제약조건(uk_member_name) 위반 -> DataIntegrityViolationException
+     */
+    @Override
+    public int renameAll(List<MemberRename> renames) {
+        em.flush();
+        int updated = JdbcBatchUpdate.execute(em, "update member set name = ? where member_id = ?", renames, (ps, rename) -> {
+            ps.setString(1, rename.getName());
+            ps.setLong(2, rename.getMemberId());
+        });
+        em.clear();
+        return updated;
+    }
+}
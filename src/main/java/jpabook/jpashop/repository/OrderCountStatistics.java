@@ -0,0 +1,64 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.seed.SeedCompletedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문 수 통계 (전체 / 상태별) : 주문 검색 페이징의 대략적인 전체 건수 (OrderSearch.approximateCount)
+ * 큰 테이블에서 페이지마다 count(*)를 실행하지 않도록 주기적으로 한 번만 집계해 둔다.
+ * 갱신 주기 사이에 들어온 주문만큼 차이가 날 수 있다.
+ */
+@Component
+public class OrderCountStatistics {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Map<OrderStatus, Long> counts = Collections.emptyMap();
+    private volatile long total = -1;
+
+    public OrderCountStatistics(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(SeedCompletedEvent.class)
+    @Scheduled(fixedDelayString = "${jpashop.order-count.refresh-interval:60000}")
+    public void refresh() {
+        List<Object[]> rows = readOnlyTransaction.execute(status -> em.createQuery(
+                "select o.status, count(o) from Order o group by o.status", Object[].class)
+                .getResultList());
+
+        Map<OrderStatus, Long> newCounts = new EnumMap<>(OrderStatus.class);
+        long newTotal = 0;
+        for (Object[] row : rows) {
+            newCounts.put((OrderStatus) row[0], (Long) row[1]);
+            newTotal += (Long) row[1];
+        }
+        counts = newCounts;
+        total = newTotal;
+    }
+
+    /**
+     * @param status null이면 전체
+     * @return 아직 집계 전이면 -1
+     */
+    public long estimate(OrderStatus status) {
+        if (total < 0) {
+            return -1;
+        }
+        return status == null ? total : counts.getOrDefault(status, 0L);
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징 커서 : 마지막으로 조회한 주문의 (orderDate, order_id)
+ * 클라이언트에는 내부 구조를 알 수 없는 토큰(Base64)으로만 노출한다.
+ */
+@Getter
+public class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public OrderCursor(LocalDateTime orderDate, Long orderId) {
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    // 페이지의 마지막 주문으로 다음 페이지 커서를 만든다.
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public String encode() {
+        String raw = orderDate.toString() + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) { // Base64, 날짜, 숫자 형식 오류 모두 잘못된 커서
+            throw new IllegalArgumentException("잘못된 커서입니다: " + token, e);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package jpabook.jpashop.repository;
 
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathExtractor;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.QMember;
 import jpabook.jpashop.domain.QOrder;
+import jpabook.jpashop.repository.search.MemberNameIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
@@ -21,6 +28,11 @@ import java.util.List;
 public class OrderRepository {
 
     private final EntityManager em;
+    private final JPAQueryFactory queryFactory; // 스레드 안전 (QuerydslConfig)
+    private final MemberNameIndex memberNameIndex;
+    private final OrderCountStatistics orderCountStatistics;
+
+    private static final int MAX_NAME_INDEX_IDS = 1000; // n-gram 인덱스 결과가 이보다 많으면 like로 조회
 
     public void save(Order order) {
         em.persist(order);
@@ -36,7 +48,7 @@ public class OrderRepository {
 
 
     /**
-     * 검색기능1 : 너무 복잡.
+     * 검색기능1 : 조건 조합별 Named 쿼리
      */
     public List<Order> findAllByString(OrderSearch orderSearch) { //검색을 위한 파라미터값
         /*
@@ -50,44 +62,28 @@ public class OrderRepository {
          */
         // .setFirstResult(100) // 페이징 100부터 시작해서 1000개 가져옴
 
-//== START 동적 쿼리 1번 방법 : 너무 복잡하다. (orderSearch가 null이면 모두 다 가져오도록)==//
-        String jpql = "select o From Order o join o.member m";
-        boolean isFirstCondition = true;
-
-        // 주문 상태 검색1
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " o.status = :status";
-        }
+//== 동적 쿼리 1번 방법 : 조건마다 JPQL 문자열을 이어 붙이는 대신, 4가지 조합을 미리 정의한 Named 쿼리로 선택 (Order.java) ==//
+        // Named 쿼리는 애플리케이션 시작 시점에 한 번 파싱/검증되고, 같은 쿼리를 다시 파싱하지 않는다.
+        boolean hasStatus = orderSearch.getOrderStatus() != null;
+        boolean hasName = StringUtils.hasText(orderSearch.getMemberName());
 
-        // 회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " m.name like :name";
+        String queryName;
+        if (hasStatus) {
+            queryName = hasName ? Order.SEARCH_BY_STATUS_AND_NAME : Order.SEARCH_BY_STATUS;
+        } else {
+            queryName = hasName ? Order.SEARCH_BY_NAME : Order.SEARCH_ALL;
         }
 
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+        TypedQuery<Order> query = em.createNamedQuery(queryName, Order.class)
                 .setMaxResults(1000);
 
-        if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
+        if (hasStatus) {
+            query.setParameter("status", orderSearch.getOrderStatus());
         }
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
+        if (hasName) {
+            query.setParameter("name", orderSearch.getMemberName());
         }
-        System.out.println("확인: " + query);
         return query.getResultList();
-//== END 동적 쿼리 1번 방법==//
     }
 
     /**
@@ -124,24 +120,74 @@ public class OrderRepository {
 
     //Query dsl 사용
     public List<Order> findAll(OrderSearch orderSearch) {
-        JPAQueryFactory query = new JPAQueryFactory(em);
-
         QOrder order = QOrder.order;
         QMember member = QMember.member;
 
-        return query.select(order)
+        return queryFactory.select(order)
                 .from(order)
                 .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName())) // 상태가 같으면 null : where안씀
+                .where(statusEq(orderSearch.getOrderStatus()), memberNameCond(orderSearch)) // 상태가 같으면 null : where안씀
                 .limit(1000)
                 .fetch();
     }
 
-    private BooleanExpression nameLike(String memberName) {
+    /**
+     * 주문 검색 페이징
+     * count 쿼리는 fetch join 없이, 회원명 조건이 member 컬럼을 쓸 때만 member를 조인한다. (n-gram 인덱스 조건은 orders의 member_id)
+     * 첫 페이지가 size보다 적거나 마지막 페이지면 count 쿼리를 실행하지 않는다. (PageableExecutionUtils)
+     * approximateCount이고 회원명 조건이 없으면 주기적으로 갱신되는 주문 수 통계를 사용한다. (OrderCountStatistics)
+     */
+    public Page<Order> findAll(OrderSearch orderSearch, Pageable pageable) {
+        QOrder order = QOrder.order;
+        QMember member = QMember.member;
+        BooleanExpression statusCond = statusEq(orderSearch.getOrderStatus());
+        BooleanExpression nameCond = memberNameCond(orderSearch);
+
+        List<Order> content = queryFactory.selectFrom(order)
+                .join(order.member, member).fetchJoin()
+                .where(statusCond, nameCond)
+                .orderBy(order.id.desc()) // 최근 주문부터
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            if (orderSearch.isApproximateCount() && nameCond == null) {
+                long estimate = orderCountStatistics.estimate(orderSearch.getOrderStatus());
+                if (estimate >= 0) {
+                    return estimate;
+                }
+            }
+            JPAQuery<Long> countQuery = queryFactory.select(order.count()).from(order);
+            if (nameCond != null && usesMemberAlias(nameCond)) {
+                countQuery.join(order.member, member);
+            }
+            return countQuery.where(statusCond, nameCond).fetchOne();
+        });
+    }
+
+    /**
+     * 회원명 조건 (없으면 null)
+     * n-gram 인덱스에 일치하는 회원이 없으면 order.member.id in () 이 되고, QueryDSL이 1 = 2로 바꿔서 결과가 없다.
+     */
+    private BooleanExpression memberNameCond(OrderSearch orderSearch) {
+        String memberName = orderSearch.getMemberName();
         if (!StringUtils.hasText(memberName)) {
             return null;
         }
-        return QMember.member.name.contains(memberName);
+        QMember member = QMember.member;
+        if (orderSearch.getMemberNameMatch() == MemberNameMatch.PREFIX) {
+            return member.name.startsWith(memberName); // like 'name%' : uk_member_name 범위 스캔
+        }
+        return memberNameIndex.findIdsContaining(memberName, MAX_NAME_INDEX_IDS)
+                .map(ids -> QOrder.order.member.id.in(ids)) // orders.member_id(FK)로 조회 : member 조인 불필요
+                .orElseGet(() -> member.name.contains(memberName)); // 인덱스를 쓸 수 없으면 like '%name%'
+    }
+
+    // 조건이 member 별칭의 컬럼을 쓰는지 (조인 필요)
+    private static boolean usesMemberAlias(BooleanExpression cond) {
+        Path<?> path = cond.accept(PathExtractor.DEFAULT, null);
+        return path != null && path.getRoot().equals(QMember.member);
     }
 
     private BooleanExpression statusEq(OrderStatus statusCond) {
@@ -162,12 +208,36 @@ public class OrderRepository {
         return em.createQuery(
                 "select o from Order o" +
                         " join fetch o.member m" +
-                        " join fetch o.delivery d", Order.class)
+                        " join fetch o.delivery d" +
+                        " order by o.orderDate, o.id", Order.class) // 키셋 페이징과 같은 정렬 (다음 페이지 커서 생성)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
+    /**
+     * 키셋(seek) 페이징 : offset 대신 마지막으로 조회한 (orderDate, order_id) 다음부터 limit개 조회
+     * offset 방식은 앞의 row를 모두 읽고 버리기 때문에 뒤 페이지일수록 느려지지만,
+     * 키셋 방식은 (order_date, order_id) 인덱스에서 바로 시작 위치를 찾으므로 페이지 깊이와 상관없이 일정하다.
+     * cursor가 null이면 첫 페이지
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        if (cursor == null) {
+            return findAllWithMemberDelivery(0, limit);
+        }
+        return em.createQuery(
+                "select o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d" +
+                        " where o.orderDate >= :orderDate" + // 인덱스 범위 조건
+                        " and (o.orderDate > :orderDate or o.id > :orderId)" + // 같은 시간의 주문은 id로 구분
+                        " order by o.orderDate, o.id", Order.class)
+                .setParameter("orderDate", cursor.getOrderDate())
+                .setParameter("orderId", cursor.getOrderId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     public List<Order> findAllWithItem() {
         return em.createQuery(
                 "select distinct o from Order o" +
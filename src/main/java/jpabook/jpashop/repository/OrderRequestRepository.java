@@ -0,0 +1,51 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderRequest;
+import jpabook.jpashop.domain.OrderRequestStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderRequestRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderRequest request) {
+        em.persist(request);
+    }
+
+    public OrderRequest findOne(Long id) {
+        return em.find(OrderRequest.class, id);
+    }
+
+    /**
+     * 아직 처리되지 않은 요청만 (같은 요청이 대기열에 두 번 들어가도 한 번만 처리된다.)
+     */
+    public List<OrderRequest> findPending(Collection<Long> ids) {
+        return em.createQuery("select r from OrderRequest r" +
+                " where r.id in :ids and r.status = :status" +
+                " order by r.id", OrderRequest.class)
+                .setParameter("ids", ids)
+                .setParameter("status", OrderRequestStatus.PENDING)
+                .getResultList();
+    }
+
+    /**
+     * requestedBefore 이전에 접수되고 아직 처리되지 않은 요청 id (재시작 / 대기열에서 빠진 요청 복구)
+     */
+    public List<Long> findPendingIds(LocalDateTime requestedBefore, int limit) {
+        return em.createQuery("select r.id from OrderRequest r" +
+                " where r.status = :status and r.requestedAt < :requestedBefore" +
+                " order by r.id", Long.class)
+                .setParameter("status", OrderRequestStatus.PENDING)
+                .setParameter("requestedBefore", requestedBefore)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -8,5 +8,7 @@ import lombok.Setter;
 @Setter
 public class OrderSearch {
     private String memberName; //회원명
+    private MemberNameMatch memberNameMatch = MemberNameMatch.CONTAINS; //회원명 검색 방식 [CONTAINS, PREFIX]
     private OrderStatus orderStatus; //주문 상태 [ORDER, CANCEL]
+    private boolean approximateCount; //전체 건수를 통계값으로 대신 (OrderCountStatistics)
 }
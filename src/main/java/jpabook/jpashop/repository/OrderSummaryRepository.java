@@ -0,0 +1,150 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.repository.support.JdbcBatchUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * 주문 요약 / 일별 집계
+ * 저장/변경 메서드는 주문 트랜잭션 안에서 호출한다. (OrderService)
+ *
+ * 집계 행은 같은 날 모든 주문이 함께 갱신하는 행이라 커밋까지 잠금이 유지된다.
+ * 그래서 주문 처리의 가장 마지막에 호출해서 잠금 시간을 짧게 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    // 집계 행은 항상 같은 순서로 잠근다. (교착 상태 방지)
+    private static final Comparator<OrderDailyRollupId> ROLLUP_ORDER =
+            comparing(OrderDailyRollupId::getDay).thenComparing(OrderDailyRollupId::getStatus);
+
+    private final EntityManager em;
+
+    /**
+     * 같은 트랜잭션에서 여러 번 호출하면 (일자, 상태)별로 합쳐서 집계 행당 UPDATE 1번
+     */
+    public void save(List<Order> orders) {
+        Map<OrderDailyRollupId, long[]> deltas = new TreeMap<>(ROLLUP_ORDER);
+        for (Order order : orders) {
+            OrderSummary summary = OrderSummary.of(order);
+            em.persist(summary);
+            accumulate(deltas, summary, 1);
+        }
+        deltas.forEach(this::addToRollup);
+    }
+
+    public void save(Order order) {
+        save(Collections.singletonList(order));
+    }
+
+    /**
+     * 주문 취소 : 요약 상태 변경 + (주문일, ORDER) 집계에서 빼고 (주문일, CANCEL) 집계에 더한다.
+     */
+    public void cancel(Order order) {
+        OrderSummary summary = em.find(OrderSummary.class, order.getId());
+        if (summary == null || summary.getStatus() == OrderStatus.CANCEL) {
+            return;
+        }
+
+        Map<OrderDailyRollupId, long[]> deltas = new TreeMap<>(ROLLUP_ORDER);
+        accumulate(deltas, summary, -1);
+        summary.cancel();
+        accumulate(deltas, summary, 1);
+        deltas.forEach(this::addToRollup);
+    }
+
+    /**
+     * 회원 이름 변경 반영 (MemberService.update)
+     */
+    public void updateMemberName(Long memberId, String name) {
+        em.createQuery("update OrderSummary s set s.memberName = :name where s.memberId = :memberId")
+                .setParameter("name", name)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 회원 이름 일괄 변경 (MemberService.renameMembers) : JDBC batch UPDATE
+     */
+    public void updateMemberNames(List<MemberRename> renames) {
+        em.flush();
+        JdbcBatchUpdate.execute(em, "update order_summary set member_name = ? where member_id = ?", renames, (ps, rename) -> {
+            ps.setString(1, rename.getName());
+            ps.setLong(2, rename.getMemberId());
+        });
+        em.clear();
+    }
+
+    public OrderDailyRollup findDailyRollup(LocalDate day, OrderStatus status) {
+        return em.find(OrderDailyRollup.class, new OrderDailyRollupId(day, status));
+    }
+
+    public List<OrderDailyRollup> findDailyRollups(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select r from OrderDailyRollup r" +
+                        " where r.id.day between :from and :to" +
+                        " order by r.id.day, r.id.status", OrderDailyRollup.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    public List<OrderSummary> findByMember(Long memberId) {
+        return em.createQuery(
+                "select s from OrderSummary s where s.memberId = :memberId order by s.orderId desc", OrderSummary.class)
+                .setParameter("memberId", memberId)
+                .getResultList();
+    }
+
+    /**
+     * 집계 행 미리 만들기 : 주문 트랜잭션에서 같은 행을 동시에 INSERT 하다가 충돌하지 않도록
+     * (OrderSummaryService가 시작 시 / 매시간 오늘, 내일 행을 만든다.)
+     */
+    public void createRollupsIfAbsent(LocalDate day) {
+        for (OrderStatus status : OrderStatus.values()) {
+            OrderDailyRollupId id = new OrderDailyRollupId(day, status);
+            if (em.find(OrderDailyRollup.class, id) == null) {
+                em.persist(new OrderDailyRollup(id, 0, 0, 0));
+            }
+        }
+    }
+
+    private void addToRollup(OrderDailyRollupId id, long[] delta) {
+        int updated = em.createQuery(
+                "update OrderDailyRollup r" +
+                        " set r.orderCount = r.orderCount + :orderCount," +
+                        " r.totalPrice = r.totalPrice + :totalPrice," +
+                        " r.itemCount = r.itemCount + :itemCount" +
+                        " where r.id.day = :day and r.id.status = :status")
+                .setParameter("orderCount", delta[0])
+                .setParameter("totalPrice", delta[1])
+                .setParameter("itemCount", delta[2])
+                .setParameter("day", id.getDay())
+                .setParameter("status", id.getStatus())
+                .executeUpdate();
+        if (updated == 0) { // 미리 만들어지지 않은 날짜 (과거 데이터 등)
+            em.persist(new OrderDailyRollup(id, delta[0], delta[1], delta[2]));
+        }
+    }
+
+    private static void accumulate(Map<OrderDailyRollupId, long[]> deltas, OrderSummary summary, int sign) {
+        OrderDailyRollupId id = new OrderDailyRollupId(summary.getOrderDate().toLocalDate(), summary.getStatus());
+        long[] delta = deltas.computeIfAbsent(id, k -> new long[3]);
+        delta[0] += sign;
+        delta[1] += sign * summary.getTotalPrice();
+        delta[2] += sign * summary.getItemCount();
+    }
+
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.repository.category;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 카테고리 트리 스냅샷 (변경 불가) : 상위 카테고리 경로(브레드크럼), 하위 카테고리 id를 DB 조회 없이 계산한다.
+ * 카테고리가 바뀌면 새 스냅샷을 만들어 통째로 바꾼다. (CategoryTreeCache)
+ */
+public final class CategoryTree {
+
+    public static final CategoryTree EMPTY = new CategoryTree(Collections.emptyMap());
+
+    private final Map<Long, Node> nodes;
+
+    private CategoryTree(Map<Long, Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * @param rows (id, 이름, 부모 id) - CategoryRepository.findAllNodes
+     */
+    public static CategoryTree of(List<Object[]> rows) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                children.computeIfAbsent((Long) row[2], k -> new ArrayList<>()).add((Long) row[0]);
+            }
+        }
+        Map<Long, Node> nodes = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            List<Long> childIds = children.getOrDefault(id, Collections.emptyList());
+            Collections.sort(childIds);
+            nodes.put(id, new Node(id, (String) row[1], (Long) row[2], Collections.unmodifiableList(childIds)));
+        }
+        return new CategoryTree(Collections.unmodifiableMap(nodes));
+    }
+
+    public Optional<Node> find(Long id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    /**
+     * 최상위 카테고리부터 자기 자신까지 (브레드크럼). 없는 카테고리면 빈 목록
+     */
+    public List<Node> ancestors(Long id) {
+        LinkedList<Node> path = new LinkedList<>();
+        Node node = nodes.get(id);
+        while (node != null && path.size() <= nodes.size()) { // 잘못된 데이터로 순환이 생겨도 멈춘다.
+            path.addFirst(node);
+            node = node.getParentId() == null ? null : nodes.get(node.getParentId());
+        }
+        return path;
+    }
+
+    /**
+     * 자기 자신 포함 모든 하위 카테고리 id (너비 우선)
+     */
+    public List<Long> descendantIds(Long id) {
+        if (!nodes.containsKey(id)) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>();
+        result.add(id);
+        for (int i = 0; i < result.size() && result.size() <= nodes.size(); i++) {
+            result.addAll(nodes.get(result.get(i)).getChildIds());
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Getter
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final List<Long> childIds;
+
+        private Node(Long id, String name, Long parentId, List<Long> childIds) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.childIds = childIds;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package jpabook.jpashop.repository.category;
+
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.seed.SeedCompletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 메모리 카테고리 트리 : 읽는 쪽은 잠금 없이 현재 스냅샷을 쓰고, 변경이 커밋되면 전체를 다시 읽어서 교체한다.
+ * 카테고리는 수가 적고 거의 바뀌지 않으므로 부분 갱신 대신 전체 재구성을 한다.
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate newReadOnlyTransaction; // 커밋 후 콜백에서는 끝난 트랜잭션에 참여하지 않도록 새 트랜잭션
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>(CategoryTree.EMPTY);
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.newReadOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.newReadOnlyTransaction.setReadOnly(true);
+        this.newReadOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public CategoryTree get() {
+        return tree.get();
+    }
+
+    // 동시에 다시 읽을 때 늦게 읽은 (더 최신) 스냅샷이 먼저 끝난 스냅샷에 덮어써지지 않도록 한 번에 하나씩
+    @EventListener({ApplicationReadyEvent.class, SeedCompletedEvent.class})
+    public void reload() {
+        reload(readOnlyTransaction);
+    }
+
+    private synchronized void reload(TransactionTemplate transaction) {
+        CategoryTree loaded = transaction.execute(status -> CategoryTree.of(categoryRepository.findAllNodes()));
+        tree.set(loaded);
+        log.debug("category tree reloaded: {} categories", loaded.size());
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 다시 읽는다. (CategoryService)
+     */
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload(newReadOnlyTransaction);
+            }
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.repository.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jpabook.jpashop.seed.SeedCompletedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 DTO 캐시 (/api/v4/simple-orders, /api/v5/orders)
+ * 대시보드가 몇 초마다 같은 조인 쿼리를 다시 실행하지 않도록 결과 DTO 목록을 캐시한다.
+ *
+ * - 크기 : DTO 개수 합이 maximum-dtos를 넘으면 제거, 시간 : ttl이 지나면 제거
+ * - 무효화 : 주문/취소 트랜잭션이 "커밋된 후" 전체를 비운다. (invalidateAfterCommit)
+ *   커밋 전에 비우면 커밋 전 데이터를 다시 읽어서 캐시에 넣을 수 있다.
+ * - 조회 중에 무효화가 일어나면 (generation 변경) 읽은 결과를 캐시에 남기지 않는다.
+ */
+@Component
+public class OrderDtoCache {
+
+    public static final String SIMPLE_ORDERS = "simple-orders";
+    public static final String ORDERS = "orders";
+
+    private final Cache<String, List<?>> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public OrderDtoCache(@Value("${jpashop.order-dto-cache.maximum-dtos:100000}") long maximumDtos,
+                         @Value("${jpashop.order-dto-cache.ttl:10s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumDtos)
+                .weigher((String key, List<?> value) -> value.size())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String key, Supplier<List<T>> loader) {
+        List<T> cached = (List<T>) cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedGeneration = generation.get();
+        List<T> loaded = Collections.unmodifiableList(loader.get());
+        if (generation.get() == loadedGeneration) {
+            cache.put(key, loaded);
+            if (generation.get() != loadedGeneration) { // put 직전에 무효화된 경우
+                cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 캐시를 비운다. (롤백되면 그대로)
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateAll();
+            }
+        });
+    }
+
+    @EventListener(SeedCompletedEvent.class) // JDBC로 직접 넣은 주문
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long invalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 플랫 데이터(OrderFlatDto) -> OrderQueryDto 조립
+ * order id 순으로 정렬된 row를 한 번만 훑으면서 id가 바뀌는 순간 완성된 주문을 downstream으로 내보낸다.
+ * groupingBy와 달리 row마다 key용 DTO를 만들지 않고(주문당 OrderQueryDto 1개), equals/hashCode에 의존하지 않으며,
+ * 조회 순서가 유지된다. 전체를 Map에 모으지 않으므로 스트리밍 응답에도 그대로 쓸 수 있다.
+ *
+ * 주의 : 입력은 반드시 order id로 정렬되어 있어야 한다. (같은 주문의 row가 연속)
+ */
+public class OrderQueryAssembler implements Consumer<OrderFlatDto> {
+
+    private final Consumer<OrderQueryDto> downstream;
+    private OrderQueryDto current;
+
+    public OrderQueryAssembler(Consumer<OrderQueryDto> downstream) {
+        this.downstream = downstream;
+    }
+
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> flats) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        OrderQueryAssembler assembler = new OrderQueryAssembler(result::add);
+        flats.forEach(assembler);
+        assembler.finish();
+        return result;
+    }
+
+    @Override
+    public void accept(OrderFlatDto flat) {
+        if (current == null || !current.getOrderId().equals(flat.getOrderId())) {
+            emit();
+            current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(),
+                    flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+        }
+        current.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(),
+                flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+    }
+
+    /**
+     * 마지막 주문 내보내기 : row를 모두 넘긴 뒤 반드시 호출해야 한다.
+     */
+    public void finish() {
+        emit();
+    }
+
+    private void emit() {
+        if (current != null) {
+            downstream.accept(current);
+            current = null;
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.support.InClauseBatchLoader;
+import jpabook.jpashop.repository.support.LongKeyMap;
+import jpabook.jpashop.repository.support.ReadOnlyQueryExecutor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -13,6 +25,16 @@ import java.util.stream.Collectors;
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final InClauseBatchLoader inClauseBatchLoader;
+    private final ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
+    private static final String FLAT_QUERY = "select new" +
+            " jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+            " from Order o" +
+            " join o.member m" +
+            " join o.delivery d" +
+            " join o.orderItems oi" +
+            " join oi.item i";
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders(); // query 1번 실행 -> 결과2 개 : N개
@@ -27,30 +49,82 @@ public class OrderQueryRepository {
     public List<OrderQueryDto> findAllByDto_optimiztion() { // findOrderQueryDtos() 개선
         List<OrderQueryDto> result = findOrders();
         List<Long> orderIds = toOrderIds(result);
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+        LongKeyMap<List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
         result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
 
         return result;
         // 메모리에서 값을 셋팅
     }
 
+    /**
+     * 키셋 페이지의 주문 키 (orderDate, id) : idx_orders_order_date_id 인덱스만 읽는다.
+     * 마지막 키가 다음 페이지 커서가 된다.
+     */
+    public List<OrderCursor> findOrderKeys(OrderCursor cursor, int limit) {
+        String where = cursor == null ? ""
+                : " where o.orderDate >= :orderDate and (o.orderDate > :orderDate or o.id > :orderId)";
+        TypedQuery<OrderCursor> query = em.createQuery(
+                "select new jpabook.jpashop.repository.OrderCursor(o.orderDate, o.id) from Order o" + where +
+                        " order by o.orderDate, o.id", OrderCursor.class);
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate())
+                    .setParameter("orderId", cursor.getOrderId());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * V5 병렬 조회 : 주문 id를 이미 알고 있으면(키셋 페이지) 주문 쿼리와 주문상품 쿼리는 서로 독립적이므로 동시에 실행한다.
+     * 주문 쿼리는 queryExecutor에서 별도의 읽기 전용 트랜잭션(커넥션)으로, 주문상품 쿼리는 호출한 스레드에서 실행한 뒤 메모리에서 합친다.
+     * 두 쿼리는 서로 다른 커넥션에서 실행되므로 그 사이에 취소된 주문은 상태만 바뀌어 보일 수 있다. (주문상품은 주문과 함께 생성)
+     * 쓰기 트랜잭션 안에서는 findAllByDto_optimiztion처럼 순서대로 실행한다. (ReadOnlyQueryExecutor)
+     *
+     * @param orderIds 조회할 주문 id (결과는 이 순서대로, 최대 InClauseBatchLoader.MAX_CHUNK_SIZE개)
+     */
+    public List<OrderQueryDto> findAllByDto_parallel(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        CompletableFuture<List<OrderQueryDto>> orders = readOnlyQueryExecutor.fork(() -> findOrdersIn(orderIds));
+        LongKeyMap<List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+
+        LongKeyMap<OrderQueryDto> orderMap = new LongKeyMap<>(orderIds.size());
+        for (OrderQueryDto order : ReadOnlyQueryExecutor.join(orders)) {
+            orderMap.put(order.getOrderId(), order);
+        }
+
+        List<OrderQueryDto> result = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            OrderQueryDto order = orderMap.get(orderId);
+            if (order == null) {
+                continue; // 주문 키 조회 후 삭제된 주문
+            }
+            List<OrderItemQueryDto> orderItems = orderItemMap.get(orderId);
+            order.setOrderItems(orderItems != null ? orderItems : Collections.emptyList());
+            result.add(order);
+        }
+        return result;
+    }
+
     private List<Long> toOrderIds(List<OrderQueryDto> result) {
         List<Long> orderIds = result.stream().map(o -> o.getOrderId()).collect(Collectors.toList()); // orderId의 리스트
         return orderIds;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
+    // 주문이 많으면 in 절을 청크로 나눠서 조회 (InClauseBatchLoader 참고)
+    private LongKeyMap<List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        return inClauseBatchLoader.load(orderIds, this::findOrderItemsIn, OrderItemQueryDto::getOrderId);
+        // Map으로 변경 key : orderId, value : OrderItemQueryDto
+    }
+
+    private List<OrderItemQueryDto> findOrderItemsIn(List<Long> orderIds) {
+        return em.createQuery(
                 "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
                         " from OrderItem oi" +
                         " join oi.item i" +
                         " where oi.order.id in :orderIds", OrderItemQueryDto.class)
                 .setParameter("orderIds", orderIds)
                 .getResultList();
-
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream().collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        // Map으로 변경 key : orderId, value : OrderItemQueryDto
-        return orderItemMap;
     }
 
     private List<OrderQueryDto> findOrders() {
@@ -62,6 +136,17 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    private List<OrderQueryDto> findOrdersIn(List<Long> orderIds) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " where o.id in :orderIds", OrderQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
     private List<OrderItemQueryDto> findOrderItems (Long orderId) {
         return em.createQuery(
                 "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)"  +
@@ -72,16 +157,63 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    /**
+     * V6 플랫 데이터 스트리밍 조회 : 결과 전체를 List로 만들지 않고 한 row씩 consumer에 넘긴다. (대용량 export 용도)
+     * 순방향(FORWARD_ONLY) 커서로 fetchSize만큼씩 DB에서 가져오고, fetchSize마다 영속성 컨텍스트를 비워서
+     * 주문이 몇 건이든 메모리 사용량이 일정하다.
+     * 트랜잭션 안에서 호출해야 한다. (커서가 열려있는 동안 커넥션 유지)
+     */
+    public void streamAllByDto_flat(int fetchSize, Consumer<OrderFlatDto> consumer) {
+        Query<OrderFlatDto> query = em.unwrap(Session.class)
+                .createQuery(FLAT_QUERY + " order by o.id", OrderFlatDto.class);
+
+        ScrollableResults results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept((OrderFlatDto) results.get(0));
+                if (++count % fetchSize == 0) {
+                    em.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    /**
+     * 플랫 데이터를 주문 단위로 조립하면서 스트리밍 : 주문 하나가 완성될 때마다 consumer에 넘긴다.
+     */
+    public void streamAllByDto(int fetchSize, Consumer<OrderQueryDto> consumer) {
+        OrderQueryAssembler assembler = new OrderQueryAssembler(consumer);
+        streamAllByDto_flat(fetchSize, assembler);
+        assembler.finish();
+    }
+
     public List<OrderFlatDto> findAllByDto_flat() {
         //Order, OrderItem : OrderItem, Item Join
-        return em.createQuery(
-                "select new" +
-                        " jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
-                        " from Order o" +
-                        " join o.member m" +
-                        " join o.delivery d" +
-                        " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class)
+        return em.createQuery(FLAT_QUERY + " order by o.id", OrderFlatDto.class) // OrderQueryAssembler는 order id 순서가 필요
+                .getResultList();
+    }
+
+    /**
+     * 플랫 데이터 페이징
+     * 조인 결과(row)에 limit을 걸면 주문이 중간에 잘리므로, 주문 id를 먼저 페이징한 뒤 그 주문들의 row만 조회한다. (쿼리 2번)
+     */
+    public List<OrderFlatDto> findAllByDto_flat(int offset, int limit) {
+        List<Long> orderIds = em.createQuery("select o.id from Order o order by o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+        if (orderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return em.createQuery(FLAT_QUERY + " where o.id in :orderIds order by o.id", OrderFlatDto.class)
+                .setParameter("orderIds", orderIds)
                 .getResultList();
     }
 }
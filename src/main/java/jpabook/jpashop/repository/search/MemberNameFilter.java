@@ -0,0 +1,130 @@
+package jpabook.jpashop.repository.search;
+
+import jpabook.jpashop.seed.SeedCompletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 블룸 필터 : 가입 시 이름 중복 확인 전에 "처음 보는 이름"을 DB 조회 없이 걸러낸다. (MemberService)
+ * mightContain이 false면 그 이름은 확실히 없고, true면 있을 수도 있으므로 DB에서 확인한다. (오탐률 : jpashop.member-name-filter.false-positive-rate)
+ * 실제 중복 방지는 DB 유니크 제약조건(uk_member_name)이 맡는다. 필터는 조회를 줄이기 위한 것이다.
+ *
+ * - 시작 시 전체 회원 이름으로 채우고, 가입/이름 변경 때마다 추가한다. (예전 이름은 지울 수 없다 -> 오탐만 늘어난다.)
+ * - 채워지기 전에는 항상 true (DB 확인)
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong names = new AtomicLong();
+    private volatile boolean ready;
+
+    public MemberNameFilter(EntityManager em, PlatformTransactionManager transactionManager,
+                            @Value("${jpashop.member-name-filter.expected-names:1000000}") long expectedNames,
+                            @Value("${jpashop.member-name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // m = -n ln(p) / (ln 2)^2, k = m / n * ln 2
+        long m = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedNames * Math.log(2)));
+    }
+
+    @EventListener({ApplicationReadyEvent.class, SeedCompletedEvent.class})
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            ScrollableResults rows = em.unwrap(Session.class)
+                    .createQuery("select m.name from Member m")
+                    .setFetchSize(SCAN_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    put((String) rows.get(0));
+                }
+            } finally {
+                rows.close();
+            }
+        });
+        ready = true;
+        log.info("member name filter ready: {} names, {} bits, {} hashes, {} ms",
+                names.get(), bitCount, hashCount, System.currentTimeMillis() - start);
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            long mask = 1L << bit; // shift는 하위 6비트만 사용
+            bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+        names.incrementAndGet();
+    }
+
+    public boolean mightContain(String name) {
+        if (!ready || name == null) {
+            return true;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64비트 FNV-1a (UTF-8 바이트) : 상위/하위 32비트를 두 개의 해시로 나눠 쓴다. (double hashing)
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,251 @@
+package jpabook.jpashop.repository.search;
+
+import jpabook.jpashop.repository.support.LongKeyMap;
+import jpabook.jpashop.seed.SeedCompletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 회원명 부분 일치 검색용 메모리 n-gram 인덱스 (bigram)
+ * like '%name%'은 DB 인덱스를 쓸 수 없어서 전체 스캔이 되므로, 이름의 2글자 조각마다 회원 id 목록을 들고 있다가
+ * 검색어의 조각 목록들을 교집합해서 후보 회원 id를 찾는다. (한글 이름은 짧아서 trigram 대신 bigram)
+ *
+ * - 시작 시 전체 회원을 읽어서 채우고 (ApplicationReadyEvent), 이후에는 가입/이름 변경이 커밋될 때마다 한 건씩 반영한다.
+ * - 채워지기 전이거나, 검색어가 1글자이거나, 결과가 너무 많으면 (인덱스 이점 없음) empty를 돌려준다. -> 호출하는 쪽에서 like로 대체
+ */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private static final int GRAM = 2;
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongKeyMap<String> names = new LongKeyMap<>(); // 회원 id -> 이름
+    private final Map<Integer, Postings> postings = new HashMap<>(); // bigram -> 회원 id 목록 (정렬)
+    private volatile boolean ready;
+
+    public MemberNameIndex(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener({ApplicationReadyEvent.class, SeedCompletedEvent.class}) // 대량 생성 후에는 생성된 회원을 더 읽어 들인다.
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            ScrollableResults rows = em.unwrap(Session.class)
+                    .createQuery("select m.id, m.name from Member m")
+                    .setFetchSize(SCAN_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    // 시작 후 커밋된 가입/이름 변경이 먼저 반영되어 있으면 그 값이 더 최신이다.
+                    index((Long) rows.get(0), (String) rows.get(1), false);
+                }
+            } finally {
+                rows.close();
+            }
+        });
+        ready = true;
+        log.info("member name index ready: {} members, {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋되면 회원 이름을 인덱스에 반영한다. (MemberService.join, update)
+     */
+    public void putAfterCommit(Long memberId, String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(memberId, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(memberId, name);
+            }
+        });
+    }
+
+    public void put(Long memberId, String name) {
+        index(memberId, name, true);
+    }
+
+    public void remove(Long memberId) {
+        lock.writeLock().lock();
+        try {
+            String old = names.remove(memberId);
+            if (old != null) {
+                for (int gram : grams(old)) {
+                    postings.get(gram).remove(memberId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Long memberId, String name, boolean overwrite) {
+        if (name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String old = names.get(memberId);
+            if (old != null && (!overwrite || old.equals(name))) {
+                return;
+            }
+            if (old != null) {
+                for (int gram : grams(old)) {
+                    postings.get(gram).remove(memberId);
+                }
+            }
+            names.put(memberId, name);
+            for (int gram : grams(name)) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(memberId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 이름에 keyword가 포함된 회원 id 목록
+     *
+     * @param maxResults 결과가 이보다 많으면 empty (in 절이 너무 길어지고, 어차피 선택도가 낮아 전체 스캔과 차이가 없다)
+     */
+    public Optional<List<Long>> findIdsContaining(String keyword, int maxResults) {
+        if (!ready || keyword.length() < GRAM) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (int gram : grams(keyword)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return Optional.of(Collections.emptyList());
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size)); // 짧은 목록부터 교집합
+
+            long[] candidates = lists.get(0).toArray();
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = lists.get(i).retainAll(candidates, count);
+            }
+
+            List<Long> result = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                // 조각이 모두 있어도 순서/위치가 다를 수 있으므로 실제 이름으로 확인
+                if (names.get(candidates[i]).contains(keyword)) {
+                    if (result.size() == maxResults) {
+                        return Optional.empty();
+                    }
+                    result.add(candidates[i]);
+                }
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<Integer> grams(String text) {
+        Set<Integer> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.charAt(i) << 16 | text.charAt(i + 1));
+        }
+        return grams;
+    }
+
+    /**
+     * 정렬된 회원 id 목록. 새 회원 id는 대부분 가장 크므로 추가는 보통 맨 뒤에 붙는다.
+     */
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        /**
+         * candidates[0..count) 중 이 목록에도 있는 것만 앞으로 모으고 개수를 돌려준다.
+         */
+        int retainAll(long[] candidates, int count) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < count; i++) {
+                while (j < size && ids[j] < candidates[i]) {
+                    j++;
+                }
+                if (j < size && ids[j] == candidates[i]) {
+                    candidates[kept++] = candidates[i];
+                }
+            }
+            return kept;
+        }
+    }
+}
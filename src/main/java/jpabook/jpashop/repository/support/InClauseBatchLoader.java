@@ -0,0 +1,84 @@
+package jpabook.jpashop.repository.support;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * where x.id in :ids 조회를 청크로 나눠서 실행하는 로더
+ *
+ * 1. id 개수만큼 in (?, ?, ...) 파라미터가 늘어나면 SQL이 거대해지고 DB 파라미터 개수 제한에 걸린다. -> 최대 MAX_CHUNK_SIZE개씩 나눈다.
+ * 2. id 개수가 다를 때마다 다른 SQL이 되어 쿼리 플랜 캐시가 오염된다. -> 청크 크기를 1, 2, 4 ... MAX_CHUNK_SIZE 중 하나로 맞춘다.
+ *    (모자란 자리는 마지막 id를 반복. in 절이라 결과는 같다)
+ * 3. 청크가 여러 개면 queryExecutor에서 병렬로 조회한다. 각 청크는 별도의 읽기 전용 트랜잭션(커넥션)에서 실행된다. (ReadOnlyQueryExecutor)
+ *    그래서 쓰기 트랜잭션 안에서 호출되면(아직 커밋되지 않은 변경이 있을 수 있음) 호출한 스레드에서 순서대로 조회한다.
+ */
+@Component
+public class InClauseBatchLoader {
+
+    public static final int MAX_CHUNK_SIZE = 512;
+
+    private final ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
+    public InClauseBatchLoader(ReadOnlyQueryExecutor readOnlyQueryExecutor) {
+        this.readOnlyQueryExecutor = readOnlyQueryExecutor;
+    }
+
+    /**
+     * @param ids       조회할 id (중복은 제거된다)
+     * @param query     청크 하나를 조회하는 함수
+     * @param keyMapper 결과 row를 묶을 key (예 : OrderItemQueryDto의 orderId)
+     * @return key별 결과 목록
+     */
+    public <T> LongKeyMap<List<T>> load(Collection<Long> ids, Function<List<Long>, List<T>> query,
+                                        ToLongFunction<T> keyMapper) {
+        LongKeyMap<List<T>> result = new LongKeyMap<>(ids.size());
+        List<List<Long>> chunks = chunk(ids);
+
+        if (chunks.size() <= 1 || !ReadOnlyQueryExecutor.canRunInParallel()) {
+            for (List<Long> chunk : chunks) {
+                merge(result, query.apply(chunk), keyMapper);
+            }
+            return result;
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            futures.add(readOnlyQueryExecutor.fork(() -> query.apply(chunk)));
+        }
+        for (CompletableFuture<List<T>> future : futures) {
+            merge(result, ReadOnlyQueryExecutor.join(future), keyMapper);
+        }
+        return result;
+    }
+
+    /**
+     * 최대 MAX_CHUNK_SIZE개씩 나누고, 각 청크를 2의 거듭제곱 크기로 채운다.
+     */
+    static List<List<Long>> chunk(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += MAX_CHUNK_SIZE) {
+            List<Long> chunk = new ArrayList<>(distinct.subList(start, Math.min(start + MAX_CHUNK_SIZE, distinct.size())));
+            Long last = chunk.get(chunk.size() - 1);
+            int paddedSize = Integer.highestOneBit(chunk.size());
+            if (paddedSize < chunk.size()) {
+                paddedSize <<= 1;
+            }
+            while (chunk.size() < paddedSize) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private <T> void merge(LongKeyMap<List<T>> result, List<T> rows, ToLongFunction<T> keyMapper) {
+        for (T row : rows) {
+            result.computeIfAbsent(keyMapper.applyAsLong(row), key -> new ArrayList<>()).add(row);
+        }
+    }
+}
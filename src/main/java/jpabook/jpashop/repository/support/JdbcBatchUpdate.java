@@ -0,0 +1,59 @@
+package jpabook.jpashop.repository.support;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 같은 UPDATE 문을 여러 행에 대해 JDBC batch로 실행한다. (현재 트랜잭션의 커넥션 사용)
+ * 엔티티를 읽지 않으므로 SELECT, 변경감지 스냅샷이 없다. 대신 영속성 컨텍스트/2차 캐시에는 반영되지 않으므로
+ * 호출하는 쪽에서 실행 전 flush, 실행 후 clear / 캐시 무효화를 해야 한다.
+ */
+public final class JdbcBatchUpdate {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private JdbcBatchUpdate() {
+    }
+
+    public interface ParameterSetter<T> {
+        void setValues(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    /**
+     * @return 수정된 행 수 (드라이버가 알려주지 않는 batch는 제외)
+     */
+    public static <T> int execute(EntityManager em, String sql, List<T> rows, ParameterSetter<T> setter) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            int updated = 0;
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (T row : rows) {
+                    setter.setValues(ps, row);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        updated += sum(ps.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    updated += sum(ps.executeBatch());
+                }
+            }
+            return updated;
+        });
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            if (count > 0) { // SUCCESS_NO_INFO(-2)
+                sum += count;
+            }
+        }
+        return sum;
+    }
+}
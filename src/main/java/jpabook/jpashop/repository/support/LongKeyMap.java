@@ -0,0 +1,136 @@
+package jpabook.jpashop.repository.support;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * long(primitive) key 전용 Map
+ * Map<Long, V>와 달리 key를 Long으로 박싱하지 않고, Entry 객체도 만들지 않는다. (open addressing, linear probing)
+ * null 값은 저장할 수 없고, 스레드 안전하지 않다.
+ */
+public class LongKeyMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongKeyMap() {
+        this(8);
+    }
+
+    public LongKeyMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity < expectedSize * 2) { // 사용률 50% 이하 유지
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > values.length) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * 삭제 후 뒤따르는 항목을 앞으로 당겨 탐색 경로가 끊기지 않게 한다. (tombstone 없음)
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V old = (V) values[index];
+        values[index] = null;
+        size--;
+
+        int hole = index;
+        for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            // 원래 자리(slot)에서 i까지의 거리가 빈칸까지의 거리 이상이면 빈칸으로 옮겨도 찾을 수 있다.
+            if (((i - slot(keys[i])) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+        }
+        return old;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int indexOf(long key) {
+        for (int index = slot(key); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // 연속된 id(1, 2, 3 ...)가 한 곳에 몰리지 않도록 섞는다.
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,81 @@
+package jpabook.jpashop.repository.support;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 서로 독립적인 조회 쿼리를 queryExecutor에서 동시에 실행 (InClauseBatchLoader, OrderQueryRepository)
+ * 작업 스레드의 조회는 각각 별도의 읽기 전용 트랜잭션(커넥션)에서 실행된다.
+ * 쓰기 트랜잭션 안에서 호출되면(아직 커밋되지 않은 변경이 다른 커넥션에서는 보이지 않음) 호출한 스레드에서 바로 실행한다.
+ *
+ * 동시에 작업 스레드로 넘기는 조회는 jpashop.query.parallelism개까지 (커넥션 풀보다 충분히 작게, QueryExecutorConfig 참고)
+ * 자리가 없거나 스레드풀이 받지 않으면 기다리지 않고 호출한 스레드에서 바로 실행한다. (새 트랜잭션 / 커넥션 없이)
+ *
+ * 주의 : 작업 스레드 안에서 다시 fork하지 않는다. (스레드풀이 자기 작업을 기다리며 멈출 수 있다)
+ */
+@Component
+public class ReadOnlyQueryExecutor {
+
+    private final TaskExecutor queryExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore permits;
+
+    public ReadOnlyQueryExecutor(@Qualifier("queryExecutor") TaskExecutor queryExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${jpashop.query.parallelism:4}") int parallelism) {
+        this.queryExecutor = queryExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.permits = new Semaphore(parallelism);
+    }
+
+    public <T> CompletableFuture<T> fork(Supplier<T> query) {
+        if (!canRunInParallel() || !permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(query.get());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readOnlyTransaction.execute(status -> query.get());
+                } finally {
+                    permits.release();
+                }
+            }, queryExecutor);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.completedFuture(query.get());
+        }
+    }
+
+    /**
+     * 결과 대기 : 작업 스레드에서 난 예외는 그대로 다시 던진다.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public static boolean canRunInParallel() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,292 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.domain.OrderDailyRollupId;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.id.PooledSequenceGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * 대량 샘플 데이터 생성 (회원, 상품, 카테고리, 주문, 주문 요약/일별 집계)
+ * em.persist 대신 JDBC batch INSERT로 직접 넣고, batchSize 건마다 커밋한다.
+ *
+ * id는 엔티티별 시퀀스에서 필요한 개수만큼 먼저 예약한다. (nextval 한 번, reserve 참고)
+ * 그래서 생성 중에도 애플리케이션의 INSERT와 id가 겹치지 않는다.
+ * 생성이 끝나면 SeedCompletedEvent를 발행한다.
+ */
+@Slf4j
+@Component
+public class BulkSeeder {
+
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전"};
+    private static final int STOCK_QUANTITY = 1_000_000;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Dialect dialect;
+    private final int incrementSize; // 애플리케이션 시퀀스의 increment by (PooledSequenceGenerator)
+
+    public BulkSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                      EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.incrementSize = ConfigurationHelper.getInt(PooledSequenceGenerator.INCREMENT_SIZE_SETTING,
+                entityManagerFactory.getProperties(), PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE);
+    }
+
+    public SeedCompletedEvent seed(SeedProperties properties) {
+        long start = System.currentTimeMillis();
+        Random random = new Random(properties.getRandomSeed());
+
+        long memberStart = reserve("member_seq", properties.getMembers());
+        insertMembers(properties, memberStart);
+
+        int items = properties.getItemsPerType() * 3;
+        long itemStart = reserve("item_seq", items);
+        int[] prices = insertItems(properties, itemStart, random);
+
+        int categories = categoryCount(properties);
+        long categoryStart = reserve("category_seq", categories);
+        insertCategories(properties, categoryStart, categories, itemStart, items, random);
+
+        long orderStart = reserve("orders_seq", properties.getOrders());
+        long deliveryStart = reserve("delivery_seq", properties.getOrders());
+        long orderItemStart = reserve("order_item_seq", (long) properties.getOrders() * properties.getItemsPerOrder());
+        insertOrders(properties, orderStart, deliveryStart, orderItemStart, memberStart, itemStart, prices, random);
+
+        evictHibernateCaches();
+
+        SeedCompletedEvent event = new SeedCompletedEvent(properties.getMembers(), items, categories,
+                properties.getOrders(), System.currentTimeMillis() - start);
+        log.info("seed completed: {} members, {} items, {} categories, {} orders in {} ms",
+                event.getMembers(), event.getItems(), event.getCategories(), event.getOrders(), event.getElapsedMillis());
+        eventPublisher.publishEvent(event);
+        return event;
+    }
+
+    /**
+     * 시퀀스에서 count개의 id를 예약하고 시작 id를 돌려준다.
+     * 애플리케이션(PooledSequenceGenerator, pooled-lo)은 nextval 값 v를 받아 [v, v + increment) 구간을 쓴다.
+     * 예약도 같은 방식으로 increment by를 잠시 count로 바꾸고 nextval 한 번으로 [v, v + count)를 받는다.
+     * (H2의 nextval은 현재 값을 돌려주고 그때의 increment만큼 올린다.)
+     * - nextval은 원자적이므로 생성 중에 실행되는 애플리케이션의 nextval과 구간이 겹치지 않는다.
+     *   (nextval 후 restart with로 건너뛰면, 그 사이 애플리케이션이 받은 블록과 예약 범위가 겹친다.)
+     * - increment를 되돌리기 전에 애플리케이션이 nextval을 하면 그 블록 뒤쪽 id가 버려질 뿐이다.
+     * - increment 변경끼리 섞이지 않도록 예약은 한 번에 하나씩 한다. (synchronized)
+     */
+    private synchronized long reserve(String sequence, long count) {
+        jdbcTemplate.execute("alter sequence " + sequence + " increment by " + count);
+        try {
+            return jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+        } finally {
+            jdbcTemplate.execute("alter sequence " + sequence + " increment by " + incrementSize);
+        }
+    }
+
+    private void insertMembers(SeedProperties properties, long memberStart) {
+        batchInsert("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)",
+                properties.getMembers(), properties.getBatchSize(), i -> {
+                    long memberId = memberStart + i;
+                    return new Object[]{memberId, memberName(memberId), city(i), street(i), zipcode(i)};
+                });
+    }
+
+    private int[] insertItems(SeedProperties properties, long itemStart, Random random) {
+        int perType = properties.getItemsPerType();
+        int[] prices = new int[perType * 3];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = (10 + random.nextInt(490)) * 100; // 1,000 ~ 50,000
+        }
+
+        batchInsert("insert into item (dtype, item_id, name, price, stock_quantity, author, isbn, artist, etc, director, actor)" +
+                        " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                prices.length, properties.getBatchSize(), i -> {
+                    long itemId = itemStart + i;
+                    switch (i / perType) {
+                        case 0:
+                            return new Object[]{"B", itemId, "BOOK" + itemId, prices[i], STOCK_QUANTITY, "author" + i, "isbn" + i, null, null, null, null};
+                        case 1:
+                            return new Object[]{"A", itemId, "ALBUM" + itemId, prices[i], STOCK_QUANTITY, null, null, "artist" + i, null, null, null};
+                        default:
+                            return new Object[]{"M", itemId, "MOVIE" + itemId, prices[i], STOCK_QUANTITY, null, null, null, null, "director" + i, "actor" + i};
+                    }
+                });
+        return prices;
+    }
+
+    /**
+     * fanout개의 최상위 카테고리 아래로 depth 단계까지 fanout개씩 (너비 우선 순서라 부모가 항상 먼저 INSERT 된다.)
+     * i번째 카테고리의 부모 = (i - fanout) / fanout
+     * 상품은 하나씩 임의의 최하위 카테고리에 넣는다.
+     */
+    private void insertCategories(SeedProperties properties, long categoryStart, int categories,
+                                  long itemStart, int items, Random random) {
+        if (categories == 0) {
+            return;
+        }
+        int fanout = properties.getCategoryFanout();
+        batchInsert("insert into category (category_id, name, parent_id) values (?, ?, ?)",
+                categories, properties.getBatchSize(), i -> new Object[]{
+                        categoryStart + i, "CATEGORY" + (categoryStart + i), i < fanout ? null : categoryStart + (i - fanout) / fanout});
+
+        // 계층 테이블 : 자기 자신(depth 0)부터 최상위까지
+        List<long[]> closures = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            int depth = 0;
+            for (int ancestor = i; ; ancestor = (ancestor - fanout) / fanout) {
+                closures.add(new long[]{categoryStart + ancestor, categoryStart + i, depth++});
+                if (ancestor < fanout) {
+                    break;
+                }
+            }
+        }
+        batchInsert("insert into category_closure (ancestor_id, descendant_id, depth) values (?, ?, ?)",
+                closures.size(), properties.getBatchSize(), i -> new Object[]{closures.get(i)[0], closures.get(i)[1], (int) closures.get(i)[2]});
+
+        int leafStart = categories - (int) Math.pow(fanout, properties.getCategoryDepth());
+        int leaves = categories - leafStart;
+        batchInsert("insert into category_item (category_id, item_id) values (?, ?)",
+                items, properties.getBatchSize(), i -> new Object[]{categoryStart + leafStart + random.nextInt(leaves), itemStart + i});
+    }
+
+    private void insertOrders(SeedProperties properties, long orderStart, long deliveryStart, long orderItemStart,
+                              long memberStart, long itemStart, int[] prices, Random random) {
+        int itemsPerOrder = Math.min(properties.getItemsPerOrder(), prices.length);
+        LocalDateTime now = LocalDateTime.now();
+        Map<OrderDailyRollupId, long[]> rollups = new HashMap<>();
+
+        for (int chunkStart = 0; chunkStart < properties.getOrders(); chunkStart += properties.getBatchSize()) {
+            int chunkEnd = Math.min(chunkStart + properties.getBatchSize(), properties.getOrders());
+            List<Object[]> deliveries = new ArrayList<>();
+            List<Object[]> orders = new ArrayList<>();
+            List<Object[]> orderItems = new ArrayList<>();
+            List<Object[]> summaries = new ArrayList<>();
+
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                long orderId = orderStart + i;
+                long deliveryId = deliveryStart + i;
+                int member = pick(properties.getMembers(), properties.getSkew(), random);
+                long memberId = memberStart + member;
+                LocalDateTime orderDate = now.minusSeconds(random.nextInt(Math.max(1, properties.getDays()) * SECONDS_PER_DAY));
+                OrderStatus status = random.nextDouble() < properties.getCancelRate() ? OrderStatus.CANCEL : OrderStatus.ORDER;
+
+                long totalPrice = 0;
+                int itemCount = 0;
+                Set<Integer> picked = new HashSet<>();
+                while (picked.size() < itemsPerOrder) {
+                    int item = pick(prices.length, properties.getSkew(), random);
+                    if (!picked.add(item)) {
+                        continue;
+                    }
+                    int count = 1 + random.nextInt(3);
+                    orderItems.add(new Object[]{orderItemStart + (long) i * properties.getItemsPerOrder() + picked.size() - 1,
+                            itemStart + item, orderId, prices[item], count});
+                    totalPrice += (long) prices[item] * count;
+                    itemCount += count;
+                }
+
+                Timestamp timestamp = Timestamp.valueOf(orderDate);
+                deliveries.add(new Object[]{deliveryId, city(member), street(member), zipcode(member), "READY"});
+                orders.add(new Object[]{orderId, memberId, deliveryId, timestamp, status.name()});
+                summaries.add(new Object[]{orderId, memberId, memberName(memberId), totalPrice, itemCount, status.name(), timestamp});
+
+                long[] rollup = rollups.computeIfAbsent(new OrderDailyRollupId(orderDate.toLocalDate(), status), k -> new long[3]);
+                rollup[0]++;
+                rollup[1] += totalPrice;
+                rollup[2] += itemCount;
+            }
+
+            transaction.executeWithoutResult(s -> {
+                jdbcTemplate.batchUpdate("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)", deliveries);
+                jdbcTemplate.batchUpdate("insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)", orders);
+                jdbcTemplate.batchUpdate("insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)", orderItems);
+                jdbcTemplate.batchUpdate("insert into order_summary (order_id, member_id, member_name, total_price, item_count, status, order_date)" +
+                        " values (?, ?, ?, ?, ?, ?, ?)", summaries);
+            });
+        }
+
+        // 일별 집계 : 이미 있는 행은 더하고 없으면 만든다.
+        transaction.executeWithoutResult(s -> rollups.forEach((id, rollup) -> {
+            int updated = jdbcTemplate.update("update order_daily_rollup" +
+                            " set order_count = order_count + ?, total_price = total_price + ?, item_count = item_count + ?" +
+                            " where day = ? and status = ?",
+                    rollup[0], rollup[1], rollup[2], id.getDay(), id.getStatus().name());
+            if (updated == 0) {
+                jdbcTemplate.update("insert into order_daily_rollup (day, status, order_count, total_price, item_count) values (?, ?, ?, ?, ?)",
+                        id.getDay(), id.getStatus().name(), rollup[0], rollup[1], rollup[2]);
+            }
+        }));
+    }
+
+    private void batchInsert(String sql, int count, int batchSize, IntFunction<Object[]> row) {
+        for (int start = 0; start < count; start += batchSize) {
+            int end = Math.min(start + batchSize, count);
+            List<Object[]> rows = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                rows.add(row.apply(i));
+            }
+            transaction.executeWithoutResult(s -> jdbcTemplate.batchUpdate(sql, rows));
+        }
+    }
+
+    /**
+     * JDBC로 직접 넣었으므로 2차 캐시 / 쿼리 캐시를 비운다.
+     */
+    private void evictHibernateCaches() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    /**
+     * [0, n) 중 하나. skew가 클수록 앞쪽 번호가 자주 뽑힌다. (u^(1 + skew), skew = 0이면 균등)
+     */
+    static int pick(int n, double skew, Random random) {
+        return (int) (n * Math.pow(random.nextDouble(), 1 + skew));
+    }
+
+    static int categoryCount(SeedProperties properties) {
+        int count = 0;
+        int level = 1;
+        for (int depth = 0; depth < properties.getCategoryDepth(); depth++) {
+            level *= properties.getCategoryFanout();
+            count += level;
+        }
+        return count;
+    }
+
+    static String memberName(long memberId) {
+        return "member" + memberId;
+    }
+
+    private static String city(int member) {
+        return CITIES[member % CITIES.length];
+    }
+
+    private static String street(int member) {
+        return "street" + member;
+    }
+
+    private static String zipcode(int member) {
+        return String.format("%05d", member % 100_000);
+    }
+}
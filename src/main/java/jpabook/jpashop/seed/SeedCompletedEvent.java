@@ -0,0 +1,25 @@
+package jpabook.jpashop.seed;
+
+import lombok.Getter;
+
+/**
+ * 대량 데이터 생성 완료 : 메모리 인덱스/통계/캐시를 다시 채우거나 비운다.
+ * (JDBC로 직접 넣기 때문에 Hibernate 2차 캐시, 회원명 인덱스 등은 변경을 알 수 없다.)
+ */
+@Getter
+public class SeedCompletedEvent {
+
+    private final int members;
+    private final int items;
+    private final int categories;
+    private final int orders;
+    private final long elapsedMillis;
+
+    public SeedCompletedEvent(int members, int items, int categories, int orders, long elapsedMillis) {
+        this.members = members;
+        this.items = items;
+        this.categories = categories;
+        this.orders = orders;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
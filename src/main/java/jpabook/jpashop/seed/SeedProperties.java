@@ -0,0 +1,26 @@
+package jpabook.jpashop.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 대량 샘플 데이터 설정 (jpashop.seed.*)
+ */
+@Getter @Setter
+@ConfigurationProperties("jpashop.seed")
+public class SeedProperties {
+
+    private boolean enabled; // 시작 후 백그라운드에서 생성
+    private int members = 10_000;
+    private int itemsPerType = 1_000; // Book, Album, Movie 각각
+    private int categoryDepth = 3; // 0이면 카테고리 없음
+    private int categoryFanout = 5; // 카테고리당 하위 카테고리 수
+    private int orders = 100_000;
+    private int itemsPerOrder = 2;
+    private double skew = 1.0; // 0 : 균등, 클수록 일부 회원/상품에 주문이 몰린다.
+    private int days = 30; // 주문일 분포 (오늘부터 며칠 전까지)
+    private double cancelRate = 0.05;
+    private int batchSize = 5_000; // JDBC batch / 커밋 단위
+    private long randomSeed = 42;
+}
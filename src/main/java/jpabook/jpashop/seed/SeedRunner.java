@@ -0,0 +1,36 @@
+package jpabook.jpashop.seed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * jpashop.seed.enabled=true 이면 시작이 끝난 뒤 (요청을 받을 수 있는 상태에서) 별도 스레드로 대량 데이터를 만든다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(SeedProperties.class)
+public class SeedRunner {
+
+    private final SeedProperties seedProperties;
+    private final BulkSeeder bulkSeeder;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        if (!seedProperties.isEnabled()) {
+            return;
+        }
+        new SimpleAsyncTaskExecutor("seed-").execute(() -> {
+            try {
+                bulkSeeder.seed(seedProperties);
+            } catch (RuntimeException e) {
+                log.error("seed failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package jpabook.jpashop.web;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.bind.support.DefaultDataBinderFactory;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerAdapter;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * API 핸들러를 요청(Tomcat) 스레드가 아니라 별도 스레드풀에서 실행한다. (컨트롤러가 Callable을 반환한 것과 같은 처리)
+ * 1. 요청 스레드 : 비동기 처리를 시작하고 바로 반환 -> Tomcat 스레드는 다른 요청을 받는다.
+ * 2. 작업 스레드 : API별 bulkhead 자리를 얻은 뒤 인자 변환(@InitBinder, @ControllerAdvice 포함) + 컨트롤러 메서드 실행
+ * 3. 결과가 나오면 다시 디스패치되어 RequestMappingHandlerAdapter가 평소처럼 JSON으로 쓴다. (예외도 평소처럼 처리)
+ *
+ * 응답을 직접 쓰는 핸들러(void, HttpServletResponse 인자)와 이미 비동기인 반환 타입은 원래대로 실행한다.
+ * OSIV, 요청별 쿼리 통계는 비동기 요청을 지원하므로 작업 스레드에서도 그대로 동작한다.
+ */
+public class AsyncApiHandlerAdapter implements HandlerAdapter, Ordered {
+
+    private final RequestMappingHandlerAdapter delegate;
+    private final AsyncTaskExecutor executor;
+    private final EndpointBulkhead bulkhead;
+    private final long timeoutMillis;
+    private final String basePackage;
+    private final Map<HandlerMethod, Boolean> offloadable = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Set<Method>> initBinderCache = new ConcurrentHashMap<>();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private volatile HandlerMethodArgumentResolverComposite argumentResolvers;
+    private volatile HandlerMethodArgumentResolverComposite initBinderArgumentResolvers;
+    private volatile Map<ControllerAdviceBean, Set<Method>> initBinderAdviceCache;
+
+    public AsyncApiHandlerAdapter(RequestMappingHandlerAdapter delegate, AsyncTaskExecutor executor,
+                                  EndpointBulkhead bulkhead, Duration timeout, String basePackage) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.bulkhead = bulkhead;
+        this.timeoutMillis = timeout.toMillis();
+        this.basePackage = basePackage;
+    }
+
+    @Override
+    public boolean supports(Object handler) {
+        return handler instanceof HandlerMethod
+                && offloadable.computeIfAbsent((HandlerMethod) handler, this::isOffloadable);
+    }
+
+    @Override
+    public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        if (asyncManager.hasConcurrentResult()) {
+            return delegate.handle(request, response, handler); // 3. 결과 쓰기
+        }
+
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        String endpoint = endpoint(handlerMethod);
+        Callable<Object> invocation = () -> {
+            bulkhead.acquire(endpoint);
+            try {
+                InvocableHandlerMethod invocable = new InvocableHandlerMethod(handlerMethod);
+                invocable.setHandlerMethodArgumentResolvers(argumentResolvers());
+                invocable.setDataBinderFactory(binderFactory(handlerMethod));
+                invocable.setParameterNameDiscoverer(parameterNameDiscoverer);
+                return invocable.invokeForRequest(webRequest, new ModelAndViewContainer());
+            } finally {
+                bulkhead.release(endpoint);
+            }
+        };
+
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
+        asyncWebRequest.setTimeout(timeoutMillis);
+        asyncManager.setAsyncWebRequest(asyncWebRequest);
+        // 결과 디스패치에서 RequestMappingHandlerAdapter가 processingContext[0]을 ModelAndViewContainer로 꺼내 쓴다.
+        asyncManager.startCallableProcessing(new WebAsyncTask<>(timeoutMillis, executor, invocation), new ModelAndViewContainer());
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long getLastModified(HttpServletRequest request, Object handler) {
+        return -1;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE; // RequestMappingHandlerAdapter보다 먼저
+    }
+
+    public static String endpoint(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+    }
+
+    private boolean isOffloadable(HandlerMethod handlerMethod) {
+        if (!handlerMethod.getBeanType().getName().startsWith(basePackage)) {
+            return false;
+        }
+        Class<?> returnType = handlerMethod.getReturnType().getParameterType();
+        if (returnType == void.class || isAsyncType(returnType)) {
+            return false;
+        }
+        if (returnType == org.springframework.http.ResponseEntity.class
+                && isAsyncType(ResolvableType.forMethodParameter(handlerMethod.getReturnType()).getGeneric().toClass())) {
+            return false;
+        }
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            Class<?> type = parameter.getParameterType();
+            if (ServletResponse.class.isAssignableFrom(type) || OutputStream.class.isAssignableFrom(type)
+                    || Writer.class.isAssignableFrom(type) || ServletRequest.class.isAssignableFrom(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsyncType(Class<?> type) {
+        return Callable.class.isAssignableFrom(type)
+                || CompletionStage.class.isAssignableFrom(type)
+                || WebAsyncTask.class.isAssignableFrom(type)
+                || org.springframework.web.context.request.async.DeferredResult.class.isAssignableFrom(type)
+                || org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.class.isAssignableFrom(type)
+                || org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody.class.isAssignableFrom(type);
+    }
+
+    private HandlerMethodArgumentResolverComposite argumentResolvers() {
+        if (argumentResolvers == null) {
+            argumentResolvers = new HandlerMethodArgumentResolverComposite().addResolvers(delegate.getArgumentResolvers());
+        }
+        return argumentResolvers;
+    }
+
+    /*
+     RequestMappingHandlerAdapter와 같은 방식으로 @InitBinder 메서드를 모은다. (getDataBinderFactory는 private)
+     적용되는 @ControllerAdvice의 메서드 먼저, 다음에 컨트롤러 자신의 메서드
+     */
+    private WebDataBinderFactory binderFactory(HandlerMethod handlerMethod) {
+        Class<?> handlerType = handlerMethod.getBeanType();
+        List<InvocableHandlerMethod> initBinderMethods = new ArrayList<>();
+        initBinderAdviceCache().forEach((advice, methods) -> {
+            if (advice.isApplicableToBeanType(handlerType)) {
+                Object bean = advice.resolveBean();
+                methods.forEach(method -> initBinderMethods.add(initBinderMethod(bean, method)));
+            }
+        });
+        Object bean = handlerMethod.getBean();
+        initBinderCache.computeIfAbsent(handlerType,
+                type -> MethodIntrospector.selectMethods(type, RequestMappingHandlerAdapter.INIT_BINDER_METHODS))
+                .forEach(method -> initBinderMethods.add(initBinderMethod(bean, method)));
+        return new ServletRequestDataBinderFactory(initBinderMethods, delegate.getWebBindingInitializer());
+    }
+
+    private InvocableHandlerMethod initBinderMethod(Object bean, Method method) {
+        InvocableHandlerMethod binderMethod = new InvocableHandlerMethod(bean, method);
+        binderMethod.setHandlerMethodArgumentResolvers(initBinderArgumentResolvers());
+        binderMethod.setDataBinderFactory(new DefaultDataBinderFactory(delegate.getWebBindingInitializer()));
+        binderMethod.setParameterNameDiscoverer(parameterNameDiscoverer);
+        return binderMethod;
+    }
+
+    private HandlerMethodArgumentResolverComposite initBinderArgumentResolvers() {
+        if (initBinderArgumentResolvers == null) {
+            initBinderArgumentResolvers = new HandlerMethodArgumentResolverComposite()
+                    .addResolvers(delegate.getInitBinderArgumentResolvers());
+        }
+        return initBinderArgumentResolvers;
+    }
+
+    private Map<ControllerAdviceBean, Set<Method>> initBinderAdviceCache() {
+        if (initBinderAdviceCache == null) {
+            Map<ControllerAdviceBean, Set<Method>> cache = new LinkedHashMap<>(); // @Order 순서
+            for (ControllerAdviceBean advice : ControllerAdviceBean.findAnnotatedBeans(delegate.getApplicationContext())) {
+                Class<?> beanType = advice.getBeanType();
+                if (beanType != null) {
+                    Set<Method> methods = MethodIntrospector.selectMethods(beanType, RequestMappingHandlerAdapter.INIT_BINDER_METHODS);
+                    if (!methods.isEmpty()) {
+                        cache.put(advice, methods);
+                    }
+                }
+            }
+            initBinderAdviceCache = cache;
+        }
+        return initBinderAdviceCache;
+    }
+}
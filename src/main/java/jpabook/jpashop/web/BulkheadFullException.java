@@ -0,0 +1,15 @@
+package jpabook.jpashop.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * API 동시 실행 수 초과 (EndpointBulkhead) -> 503
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String endpoint) {
+        super("too many concurrent requests: " + endpoint);
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.web;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API별 동시 실행 수 제한 (bulkhead)
+ * 느린 API가 요청이 몰려도 자기 몫의 자리(permit)만 쓰므로, 스레드/커넥션이 다른 API까지 막지 않는다.
+ * 자리가 없으면 maxWait만큼 기다리고, 그래도 없으면 바로 실패한다. (대기열에 쌓여 지연이 길어지는 것보다 낫다.)
+ */
+public class EndpointBulkhead {
+
+    private final int defaultPermits;
+    private final long maxWaitNanos;
+    private final Map<String, Integer> permits;
+    private final Map<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    public EndpointBulkhead(int defaultPermits, Duration maxWait, Map<String, Integer> permits) {
+        this.defaultPermits = defaultPermits;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = permits;
+    }
+
+    /**
+     * @throws BulkheadFullException maxWait 안에 자리가 나지 않은 경우
+     */
+    public void acquire(String endpoint) throws InterruptedException {
+        Semaphore semaphore = semaphores.computeIfAbsent(endpoint, k -> new Semaphore(permits.getOrDefault(k, defaultPermits)));
+        if (!semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            rejections.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+            throw new BulkheadFullException(endpoint);
+        }
+    }
+
+    public void release(String endpoint) {
+        semaphores.get(endpoint).release();
+    }
+
+    public long rejections(String endpoint) {
+        LongAdder count = rejections.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.Controller;
+
+import jpabook.jpashop.Service.ItemService;
+import jpabook.jpashop.Service.MemberService;
+import jpabook.jpashop.Service.OrderPipeline;
+import jpabook.jpashop.Service.OrderService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 스프링 컨테이너 없이 컨트롤러만 (서비스는 mock)
+ */
+public class OrderControllerTest {
+
+    private final OrderPipeline orderPipeline = mock(OrderPipeline.class);
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        OrderController controller = new OrderController(mock(OrderService.class), mock(MemberService.class),
+                mock(ItemService.class), orderPipeline);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void 주문_대기열이_가득_차면_다시_주문_화면() throws Exception {
+        //given
+        given(orderPipeline.isEnabled()).willReturn(true);
+        given(orderPipeline.submit(anyLong(), anyLong(), anyInt())).willThrow(new IllegalStateException("주문 대기열이 가득 찼습니다."));
+
+        //when then 500이 아니라 입력값이 남아 있는 주문 화면과 안내 메시지
+        mockMvc.perform(post("/order").param("memberId", "1").param("itemId", "2").param("count", "3"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("order/orderForm"))
+                .andExpect(model().attribute("errorMessage", startsWith("주문 대기열이 가득 찼습니다.")))
+                .andExpect(model().attribute("memberId", 1L))
+                .andExpect(model().attribute("itemId", 2L))
+                .andExpect(model().attribute("count", 3));
+    }
+}
@@ -0,0 +1,112 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.category.CategoryTree;
+import jpabook.jpashop.repository.category.CategoryTreeCache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static jpabook.jpashop.TestFixtures.createBook;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CategoryServiceTest {
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 하위카테고리_상품_조회() throws Exception {
+        //given 도서 > 컴퓨터 > 자바, 도서 > 소설
+        Long books = categoryService.saveCategory("도서", null);
+        Long computer = categoryService.saveCategory("컴퓨터", books);
+        Long java = categoryService.saveCategory("자바", computer);
+        Long novel = categoryService.saveCategory("소설", books);
+
+        Book jpaBook = addItem(java, "JPA BOOK");
+        Book springBook = addItem(computer, "SPRING BOOK");
+        Book harryPotter = addItem(novel, "해리포터");
+        em.flush();
+        em.clear();
+
+        //when
+        List<Long> all = itemIds(categoryService.findItems(books, 0, 100));
+        List<Long> underComputer = itemIds(categoryService.findItems(computer, 0, 100));
+
+        //then
+        assertEquals("최상위 카테고리는 모든 하위 카테고리의 상품을 포함해야 한다.",
+                Arrays.asList(jpaBook.getId(), springBook.getId(), harryPotter.getId()), all);
+        assertEquals("다른 카테고리의 상품은 포함하지 않아야 한다.",
+                Arrays.asList(jpaBook.getId(), springBook.getId()), underComputer);
+    }
+
+    @Test
+    public void 카테고리_이동() throws Exception {
+        //given 도서 > 컴퓨터 > 자바, 잡지
+        Long books = categoryService.saveCategory("도서", null);
+        Long computer = categoryService.saveCategory("컴퓨터", books);
+        Long java = categoryService.saveCategory("자바", computer);
+        Long magazine = categoryService.saveCategory("잡지", null);
+        Book jpaBook = addItem(java, "JPA BOOK");
+
+        //when 컴퓨터(하위 포함)를 잡지 아래로
+        categoryService.addChildCategory(magazine, computer);
+        em.flush();
+        em.clear();
+        categoryTreeCache.reload(); // 테스트 트랜잭션은 커밋되지 않으므로 직접 다시 읽는다.
+
+        //then
+        assertTrue("예전 상위 카테고리에서는 빠져야 한다.", categoryService.findItems(books, 0, 100).isEmpty());
+        assertEquals("새 상위 카테고리에서 하위 카테고리 상품까지 조회되어야 한다.",
+                Arrays.asList(jpaBook.getId()), itemIds(categoryService.findItems(magazine, 0, 100)));
+        assertEquals("브레드크럼은 최상위부터 현재 카테고리까지",
+                Arrays.asList("잡지", "컴퓨터", "자바"),
+                categoryService.findBreadcrumbs(java).stream().map(CategoryTree.Node::getName).collect(toList()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 하위카테고리로_이동_예외() throws Exception {
+        //given
+        Long books = categoryService.saveCategory("도서", null);
+        Long computer = categoryService.saveCategory("컴퓨터", books);
+
+        //when
+        categoryService.addChildCategory(computer, books); // 예외발생해야함.
+
+        //then
+        fail("순환이 생기면 예외가 발생해야 한다.");
+    }
+
+    private Book addItem(Long categoryId, String name) {
+        Book book = createBook(name, 10000, 10);
+        em.persist(book);
+        categoryRepository.findOne(categoryId).getItems().add(book);
+        return book;
+    }
+
+    private List<Long> itemIds(List<Item> items) {
+        return items.stream().map(Item::getId).collect(toList());
+    }
+}
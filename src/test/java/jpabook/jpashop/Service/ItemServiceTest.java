@@ -0,0 +1,202 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Item;
+import jpabook.jpashop.repository.ItemUpdate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createUniqueMember;
+import static org.junit.Assert.*;
+
+/**
+ * 상품 수정 / 재고 변경 후 2차 캐시 / 쿼리 캐시에서 예전 값이 보이면 안 된다.
+ * 캐시는 커밋 후에 비우므로 @Transactional(롤백)을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ItemServiceTest {
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void 일괄수정_후_캐시에서_새_값() throws Exception {
+        //given 2차 캐시(findOne)와 쿼리 캐시(findItems)에 올라간 상품
+        Long itemId = saveBook(10000, 10);
+        loadIntoCaches(itemId);
+
+        //when
+        int updated = itemService.updateItems(Collections.singletonList(new ItemUpdate(itemId, 20000, 5)));
+
+        //then
+        assertEquals(1, updated);
+        assertFalse("커밋 후 2차 캐시에서 빠져야 한다.", emf.getCache().contains(Item.class, itemId));
+        Item item = itemService.findOne(itemId);
+        assertEquals(20000, item.getPrice());
+        assertEquals(5, item.getStockQuantity());
+        long queryCacheHits = statistics().getQueryCacheHitCount();
+        Item listed = findListed(itemId);
+        assertEquals("쿼리 캐시가 비워져서 DB에서 다시 읽어야 한다.", queryCacheHits, statistics().getQueryCacheHitCount());
+        assertEquals("쿼리 캐시의 예전 결과가 나오면 안 된다.", 20000, listed.getPrice());
+    }
+
+    @Test
+    public void 일괄수정_보내지_않은_값은_그대로() throws Exception {
+        //given
+        Long itemId = saveBook(10000, 10);
+
+        //when 재고만 수정, 없는 상품 id 포함
+        int updated = itemService.updateItems(Arrays.asList(
+                new ItemUpdate(itemId, null, 3),
+                new ItemUpdate(Long.MAX_VALUE, 1, 1)));
+
+        //then
+        assertEquals("없는 상품은 수정 건수에서 빠진다.", 1, updated);
+        Item item = itemService.findOne(itemId);
+        assertEquals("가격은 그대로", 10000, item.getPrice());
+        assertEquals(3, item.getStockQuantity());
+    }
+
+    @Test
+    public void 주문_재고변경_후_캐시에서_새_재고() throws Exception {
+        //given 2차 캐시와 쿼리 캐시에 올라간 상품
+        Long itemId = saveBook(10000, 10);
+        Long memberId = joinMember();
+        loadIntoCaches(itemId);
+
+        //when 재고는 네이티브 UPDATE (item_stock 쿼리 스페이스), 해당 상품의 캐시 항목만 잠근다.
+        Long orderId = orderService.order(memberId, itemId, 3);
+
+        //then
+        assertEquals(7, findOneFromDb(itemId).getStockQuantity());
+        long queryCacheHits = statistics().getQueryCacheHitCount();
+        assertEquals("id 목록은 쿼리 캐시, 상품은 2차 캐시의 새 재고", 7, findListed(itemId).getStockQuantity());
+        assertEquals("재고 변경으로 findAll 쿼리 캐시가 무효화되면 안 된다. (id 목록은 그대로)",
+                queryCacheHits + 1, statistics().getQueryCacheHitCount());
+
+        //when 주문 취소 : 재고 복구
+        orderService.cancelOrder(orderId);
+
+        //then
+        assertEquals(10, findOneFromDb(itemId).getStockQuantity());
+        queryCacheHits = statistics().getQueryCacheHitCount();
+        assertEquals(10, findListed(itemId).getStockQuantity());
+        assertEquals(queryCacheHits + 1, statistics().getQueryCacheHitCount());
+    }
+
+    @Test
+    public void 캐시의_재고가_예전_값이어도_DB_재고로_주문() throws Exception {
+        //given 2차 캐시에는 재고 1, DB에는 (캐시를 거치지 않고) 재고 5
+        Long itemId = saveBook(10000, 1);
+        Long memberId = joinMember();
+        itemService.findOne(itemId);
+        jdbcTemplate.update("update item set stock_quantity = 5 where item_id = ?", itemId);
+        assertEquals(1, itemService.findOne(itemId).getStockQuantity());
+
+        //when 재고 확인은 조건부 UPDATE로만 한다.
+        orderService.order(memberId, itemId, 3);
+
+        //then
+        assertEquals(2, findOneFromDb(itemId).getStockQuantity());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 저장된_상품의_재고는_setter로_변경_불가() throws Exception {
+        //given
+        Item item = itemService.findOne(saveBook(10000, 10));
+
+        //when
+        item.setStockQuantity(20);
+
+        //then
+        fail("재고는 ItemService.updateItem으로만 바꿀 수 있다.");
+    }
+
+    @Test
+    public void 상품수정_후_캐시에서_새_값() throws Exception {
+        //given
+        Long itemId = saveBook(10000, 10);
+        loadIntoCaches(itemId);
+
+        //when 가격은 변경감지, 재고는 네이티브 UPDATE
+        itemService.updateItem(itemId, "수정된상품", 15000, 20);
+
+        //then
+        Item item = findOneFromDb(itemId);
+        assertEquals("수정된상품", item.getName());
+        assertEquals(15000, item.getPrice());
+        assertEquals(20, item.getStockQuantity());
+        long queryCacheHits = statistics().getQueryCacheHitCount();
+        Item listed = findListed(itemId);
+        assertEquals("item 테이블이 바뀌었으므로 쿼리 캐시를 쓰지 않는다.", queryCacheHits, statistics().getQueryCacheHitCount());
+        assertEquals(15000, listed.getPrice());
+        assertEquals(20, listed.getStockQuantity());
+    }
+
+    /**
+     * 상품을 2차 캐시(findOne)와 쿼리 캐시(findItems)에 올리고, 실제로 캐시에서 읽히는지 확인한다.
+     */
+    private void loadIntoCaches(Long itemId) {
+        itemService.findOne(itemId);
+        itemService.findItems();
+        assertTrue("조회한 상품은 2차 캐시에 있어야 한다.", emf.getCache().contains(Item.class, itemId));
+        long queryCacheHits = statistics().getQueryCacheHitCount();
+        itemService.findItems();
+        assertEquals("두 번째 findItems는 쿼리 캐시에서 읽어야 한다.", queryCacheHits + 1, statistics().getQueryCacheHitCount());
+    }
+
+    /**
+     * 2차 캐시의 예전 값이 아니라 DB에서 읽었는지 확인 (읽은 값은 다시 캐시에 들어간다)
+     */
+    private Item findOneFromDb(Long itemId) {
+        long hits = statistics().getSecondLevelCacheHitCount();
+        Item item = itemService.findOne(itemId);
+        assertEquals("변경 후에는 2차 캐시가 아니라 DB에서 읽어야 한다.", hits, statistics().getSecondLevelCacheHitCount());
+        hits = statistics().getSecondLevelCacheHitCount();
+        itemService.findOne(itemId);
+        assertEquals("다시 읽으면 2차 캐시에서 읽는다.", hits + 1, statistics().getSecondLevelCacheHitCount());
+        return item;
+    }
+
+    private Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Item findListed(Long itemId) {
+        return itemService.findItems().stream().filter(i -> i.getId().equals(itemId)).findFirst().get();
+    }
+
+    private Long joinMember() {
+        return memberService.join(createUniqueMember("상품테스트회원"));
+    }
+
+    private Long saveBook(int price, int stock) {
+        Book book = createBook("일괄수정상품", price, stock);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -1,16 +1,27 @@
 package jpabook.jpashop.Service;
 
+import jpabook.jpashop.domain.Book;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.MemberRename;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createMember;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -24,6 +35,18 @@ public class MemberServiceTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    OrderDtoCache orderDtoCache;
+
     @Autowired
     EntityManager em;
     //엔티티매니저를 사용하여 flush를 해서 insert문을 볼 수 있음 이후 바로 (rollback)
@@ -40,7 +63,7 @@ public class MemberServiceTest {
 
         //then 결과
         em.flush();
-        assertEquals(member, memberRepository.findById(savedId));
+        assertEquals(member, memberRepository.findById(savedId).get());
         // member와 디비에 저장되어있는 member가 같은지 확인. 같으면 정상적으로 가입이 된 것.
     }
 
@@ -65,6 +88,106 @@ public class MemberServiceTest {
 
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void 중복_회원_예외_유니크제약조건() throws Exception {
+        //given 이름 필터를 거치지 않고 저장된 회원 (동시 가입과 같은 상황)
+        Member member1 = new Member();
+        member1.setName("park");
+        em.persist(member1);
+        em.flush();
+
+        Member member2 = new Member();
+        member2.setName("park");
+
+        //when
+        memberService.join(member2); // DB 유니크 제약조건에서 예외발생해야함.
+
+        //then
+        fail("예외가 발생해야한다.");
+    }
+
+    // 이름 일괄 변경은 커밋 후에 반영되는 것(주문 캐시 무효화 등)까지 확인하므로 롤백하지 않는다.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 이름_일괄변경() throws Exception {
+        //given 주문이 있는 회원
+        String suffix = "-" + System.nanoTime();
+        Long memberId = joinMember("변경전" + suffix);
+        Long orderId = orderService.order(memberId, saveBook(), 1);
+        long invalidations = orderDtoCache.invalidationCount();
+
+        //when
+        int updated = memberService.renameMembers(Collections.singletonList(new MemberRename(memberId, "변경후" + suffix)));
+
+        //then
+        assertEquals(1, updated);
+        assertEquals("변경후" + suffix, memberService.findOne(memberId).getName());
+        List<OrderSummary> summaries = orderSummaryRepository.findByMember(memberId);
+        assertEquals(orderId, summaries.get(0).getOrderId());
+        assertEquals("주문 요약의 회원 이름도 바뀌어야 한다.", "변경후" + suffix, summaries.get(0).getMemberName());
+        assertTrue("커밋 후 주문 DTO 캐시를 비워야 한다.", orderDtoCache.invalidationCount() > invalidations);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 이름_일괄변경_중복이면_전체_롤백() throws Exception {
+        //given
+        String suffix = "-" + System.nanoTime();
+        Long first = joinMember("첫째" + suffix);
+        Long second = joinMember("둘째" + suffix);
+        joinMember("셋째" + suffix);
+
+        //when 첫 번째는 문제가 없지만 두 번째가 이미 있는 이름
+        try {
+            memberService.renameMembers(Arrays.asList(
+                    new MemberRename(first, "새이름" + suffix),
+                    new MemberRename(second, "셋째" + suffix)));
+            fail("예외가 발생해야한다.");
+        } catch (IllegalStateException e) {
+            // 기대한 예외
+        }
+
+        //then
+        assertEquals("앞의 변경도 롤백되어야 한다.", "첫째" + suffix, memberService.findOne(first).getName());
+        assertEquals("둘째" + suffix, memberService.findOne(second).getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 이름_일괄변경_요청_안에_같은_이름() throws Exception {
+        //given
+        Long first = joinMember("가나");
+        Long second = joinMember("다라");
+
+        //when
+        memberService.renameMembers(Arrays.asList(new MemberRename(first, "마바"), new MemberRename(second, "마바")));
+
+        //then
+        fail("예외가 발생해야한다.");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 이름_일괄변경_맞바꾸기는_실패() throws Exception {
+        //given 유니크 제약조건은 행마다 검사하므로 맞바꾸기는 중간 상태에서 위반된다.
+        Long first = joinMember("가나");
+        Long second = joinMember("다라");
+
+        //when
+        memberService.renameMembers(Arrays.asList(new MemberRename(first, "다라"), new MemberRename(second, "가나")));
+
+        //then
+        fail("예외가 발생해야한다.");
+    }
+
+    private Long joinMember(String name) {
+        return memberService.join(createMember(name));
+    }
+
+    private Long saveBook() {
+        Book book = createBook("회원테스트상품", 10000, 10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
     /* 위 코드와 해당 코드는 같음.
     @Test(expected = IllegalStateException.class)
     public void 중복_회원_예외2() throws Exception {
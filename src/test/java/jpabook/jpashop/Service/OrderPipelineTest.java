@@ -0,0 +1,144 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderRequest;
+import jpabook.jpashop.domain.OrderRequestStatus;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.*;
+
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createUniqueMember;
+import static org.junit.Assert.*;
+
+/**
+ * 묶음 처리 중 한 건이 실패해도 나머지 요청은 주문되어야 한다. 일시적인 실패는 다시 처리할 수 있어야 한다.
+ * 묶음마다 자기 트랜잭션에서 커밋되어야 하므로 @Transactional(롤백)을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderPipelineTest {
+
+    @Autowired
+    OrderPipeline orderPipeline;
+
+    @Autowired
+    OrderRequestService orderRequestService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void 묶음_주문_실패_격리() throws Exception {
+        //given 재고 1개인 상품에 두 건, 재고가 넉넉한 상품에 한 건
+        Member member = createUniqueMember("비동기주문회원");
+        memberService.join(member);
+
+        Book limited = saveBook("한정판", 1);
+        Book normal = saveBook("일반판", 100);
+
+        Long first = orderRequestService.request(member.getId(), limited.getId(), 1);
+        Long soldOut = orderRequestService.request(member.getId(), limited.getId(), 1);
+        Long other = orderRequestService.request(member.getId(), normal.getId(), 2);
+
+        //when
+        orderPipeline.processBatch(Arrays.asList(first, soldOut, other));
+
+        //then
+        assertEquals("재고가 있는 요청은 주문되어야 한다.", OrderRequestStatus.COMPLETED, orderRequestService.findOne(first).getStatus());
+        assertEquals("다른 상품 요청도 주문되어야 한다.", OrderRequestStatus.COMPLETED, orderRequestService.findOne(other).getStatus());
+        OrderRequest failed = orderRequestService.findOne(soldOut);
+        assertEquals("재고가 부족한 요청만 실패해야 한다.", OrderRequestStatus.FAILED, failed.getStatus());
+        assertNull("실패한 요청에는 주문이 없어야 한다.", failed.getOrderId());
+        assertEquals("재고는 0이어야 한다.", 0, itemService.findOne(limited.getId()).getStockQuantity());
+        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 98, itemService.findOne(normal.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 복구는_대기열에_있는_요청을_다시_넣지_않는다() throws Exception {
+        //given 작업 스레드 없이 대기열만 쓰는 파이프라인, 처리되지 않은 요청
+        OrderPipeline pipeline = new OrderPipeline(orderRequestService, true, 100, 10000);
+        Member member = createUniqueMember("복구테스트회원");
+        memberService.join(member);
+        orderRequestService.request(member.getId(), saveBook("복구상품", 10).getId(), 1);
+
+        //when 복구 작업이 두 번 실행
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        pipeline.enqueuePending(now);
+        int queued = pipeline.getQueued();
+        pipeline.enqueuePending(now);
+
+        //then
+        assertTrue(queued > 0);
+        assertEquals("같은 요청이 두 번 들어가면 안 된다.", queued, pipeline.getQueued());
+    }
+
+    @Test
+    public void 잠금_대기_시간_초과는_PENDING으로_남는다() throws Exception {
+        //given 다른 트랜잭션이 상품 행을 잠그고 있다.
+        Member member = createUniqueMember("잠금테스트회원");
+        memberService.join(member);
+        Book book = saveBook("잠긴상품", 10);
+        Long requestId = orderRequestService.request(member.getId(), book.getId(), 1);
+        long failedBefore = orderPipeline.getFailed();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> lockHolder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("update item set price = price where item_id = ?", book.getId());
+            locked.countDown();
+            try {
+                release.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        //when 재고 UPDATE가 잠금을 기다리다 실패
+        try {
+            orderPipeline.processBatch(Collections.singletonList(requestId));
+        } finally {
+            release.countDown();
+            lockHolder.get(1, TimeUnit.MINUTES);
+            executor.shutdown();
+        }
+
+        //then 일시적인 실패이므로 FAILED가 아니다.
+        assertEquals(OrderRequestStatus.PENDING, orderRequestService.findOne(requestId).getStatus());
+        assertEquals(failedBefore, orderPipeline.getFailed());
+
+        //when 잠금이 풀린 뒤 복구 작업이 다시 처리
+        orderPipeline.processBatch(Collections.singletonList(requestId));
+
+        //then
+        assertEquals(OrderRequestStatus.COMPLETED, orderRequestService.findOne(requestId).getStatus());
+    }
+
+    private Book saveBook(String name, int stockQuantity) {
+        Book book = createBook(name, 10000, stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
@@ -3,6 +3,7 @@ package jpabook.jpashop.Service;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -12,6 +13,10 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -29,6 +34,9 @@ public class OrderServiceTest {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    OrderSummaryRepository orderSummaryRepository;
+
     @Test
     public void 상품주문() throws Exception {
         //given
@@ -46,7 +54,9 @@ public class OrderServiceTest {
         assertEquals("상품 주문시 상태는 ORDER", OrderStatus.ORDER, getOrder.getStatus()); // 메시지, 기대하는 값, 실제 값
         assertEquals("주문한 상품 종류 수가 정확해야한다", 1, getOrder.getOrderItems().size());
         assertEquals("주문가격은 가격 * 수량이다", 10000 * orderCount, getOrder.getTotalPrice());
-        assertEquals("주문 수량만큼 재고가 줄어야한다.", 8, book.getStockQuantity());
+        em.flush();
+        em.clear();
+        assertEquals("주문 수량만큼 재고가 줄어야한다.", 8, em.find(Book.class, book.getId()).getStockQuantity());
     }
 
     @Test(expected = NotEnoughStockException.class)
@@ -80,7 +90,103 @@ public class OrderServiceTest {
         Order getOrder = orderRepository.findOne(orderId);
 
         assertEquals("주문 취소시 사애는 CANCEL 입니다", OrderStatus.CANCEL, getOrder.getStatus());
-        assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야한다.", 10, item.getStockQuantity());
+        em.flush();
+        em.clear();
+        assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야한다.", 10, em.find(Book.class, item.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 여러건_주문() throws Exception {
+        //given
+        Member member = createMember();
+        Book book1 = createBook("해리포터", 10000, 10);
+        Book book2 = createBook("반지의제왕", 20000, 10);
+
+        List<OrderLine> lines = Arrays.asList(
+                new OrderLine(member.getId(), Arrays.asList(
+                        new OrderLine.ItemCount(book1.getId(), 1),
+                        new OrderLine.ItemCount(book2.getId(), 2))),
+                OrderLine.of(member.getId(), book1.getId(), 3));
+
+        //when
+        List<Long> orderIds = orderService.placeOrders(lines);
+
+        //then
+        em.flush();
+        em.clear();
+        assertEquals("주문 건수만큼 주문이 생성되어야 한다.", 2, orderIds.size());
+        assertEquals("한 주문에 여러 상품을 담을 수 있다.", 2, orderRepository.findOne(orderIds.get(0)).getOrderItems().size());
+        assertEquals("상품별 주문 수량을 합친 만큼 재고가 줄어야 한다.", 6, em.find(Book.class, book1.getId()).getStockQuantity());
+        assertEquals(8, em.find(Book.class, book2.getId()).getStockQuantity());
+    }
+
+    @Test(expected = NotEnoughStockException.class)
+    public void 여러건_주문_합계_재고수량초과() throws Exception {
+        //given 한 건씩은 재고 이내지만 합치면 초과
+        Member member = createMember();
+        Book book = createBook("해리포터", 10000, 10);
+
+        //when
+        orderService.placeOrders(Arrays.asList(
+                OrderLine.of(member.getId(), book.getId(), 6),
+                OrderLine.of(member.getId(), book.getId(), 6)));
+
+        //then
+        fail("재고 수량 부족 예외가 발생해야한다.");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 여러건_주문_주문상품_없음() throws Exception {
+        //given
+        Member member = createMember();
+
+        //when
+        orderService.placeOrders(Collections.singletonList(new OrderLine(member.getId(), Collections.emptyList())));
+
+        //then
+        fail("주문 상품이 없으면 예외가 발생해야한다.");
+    }
+
+    @Test
+    public void 주문요약_집계() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("해리포터", 10000, 10);
+        LocalDate today = LocalDate.now();
+        long[] orderedBefore = rollup(today, OrderStatus.ORDER);
+        long[] canceledBefore = rollup(today, OrderStatus.CANCEL);
+
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+        em.clear();
+
+        //then
+        OrderSummary summary = em.find(OrderSummary.class, orderId);
+        assertEquals("주문 요약의 금액은 가격 * 수량이다.", 30000, summary.getTotalPrice());
+        assertEquals(3, summary.getItemCount());
+        assertEquals(member.getName(), summary.getMemberName());
+        assertArrayEquals("오늘 ORDER 집계에 더해져야 한다.", plus(orderedBefore, 1, 30000, 3), rollup(today, OrderStatus.ORDER));
+
+        //when 취소
+        orderService.cancelOrder(orderId);
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals(OrderStatus.CANCEL, em.find(OrderSummary.class, orderId).getStatus());
+        assertArrayEquals("ORDER 집계에서 빠져야 한다.", orderedBefore, rollup(today, OrderStatus.ORDER));
+        assertArrayEquals("CANCEL 집계에 더해져야 한다.", plus(canceledBefore, 1, 30000, 3), rollup(today, OrderStatus.CANCEL));
+    }
+
+    private long[] rollup(LocalDate day, OrderStatus status) {
+        OrderDailyRollup rollup = orderSummaryRepository.findDailyRollup(day, status);
+        return rollup == null ? new long[3]
+                : new long[]{rollup.getOrderCount(), rollup.getTotalPrice(), rollup.getItemCount()};
+    }
+
+    private long[] plus(long[] before, long orderCount, long totalPrice, long itemCount) {
+        return new long[]{before[0] + orderCount, before[1] + totalPrice, before[2] + itemCount};
     }
 
     private Book createBook(String name, int price, int stockQuantity) {
@@ -0,0 +1,127 @@
+package jpabook.jpashop.Service;
+
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createUniqueMember;
+import static org.junit.Assert.*;
+
+/**
+ * 여러 스레드가 동시에 같은 상품을 주문해도 재고보다 많이 팔리면 안 된다.
+ * 각 주문이 자기 트랜잭션에서 커밋되어야 하므로 @Transactional(롤백)을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StockConcurrencyTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Test
+    public void 동시_주문_초과판매_없음() throws Exception {
+        //given
+        int stock = 100;
+        int threads = 32;
+        int attempts = 300;
+
+        Member member = createUniqueMember("재고테스트회원");
+        memberService.join(member);
+
+        Book book = createBook("인기상품", 10000, stock);
+        itemService.saveItem(book);
+
+        //when 모든 스레드가 동시에 출발
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.order(member.getId(), book.getId(), 1);
+                    success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES); // 재고 부족 외의 예외는 테스트 실패
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals("재고 수량만큼만 주문이 성공해야 한다.", stock, success.get());
+        assertEquals("나머지는 재고 부족이어야 한다.", attempts - stock, soldOut.get());
+        assertEquals("재고는 0이어야 한다. (음수 불가)", 0, itemService.findOne(book.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 반대_순서_여러건_주문_교착상태_없음() throws Exception {
+        //given 상품 두 개를 서로 반대 순서로 담은 주문들
+        int threads = 16;
+        int attempts = 200;
+
+        Member member = createUniqueMember("교착테스트회원");
+        memberService.join(member);
+        Long first = saveBook("상품A", attempts);
+        Long second = saveBook("상품B", attempts);
+
+        List<OrderLine> forward = Collections.singletonList(new OrderLine(member.getId(), Arrays.asList(
+                new OrderLine.ItemCount(first, 1), new OrderLine.ItemCount(second, 1))));
+        List<OrderLine> backward = Collections.singletonList(new OrderLine(member.getId(), Arrays.asList(
+                new OrderLine.ItemCount(second, 1), new OrderLine.ItemCount(first, 1))));
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            List<OrderLine> lines = i % 2 == 0 ? forward : backward;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderService.placeOrders(lines);
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES); // 교착 상태 / 잠금 대기 시간 초과는 테스트 실패
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(0, itemService.findOne(first).getStockQuantity());
+        assertEquals(0, itemService.findOne(second).getStockQuantity());
+    }
+
+    private Long saveBook(String name, int stock) {
+        Book book = createBook(name, 10000, stock);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,35 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Member;
+
+/**
+ * 테스트용 회원/상품 생성
+ * 저장하지 않은 엔티티를 돌려준다. 저장은 테스트마다 em.persist, memberService.join, itemService.saveItem 중 맞는 것으로 한다.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "랄랄로", "123-123"));
+        return member;
+    }
+
+    // 커밋하는 테스트는 회원 이름 유니크 제약조건에 걸리지 않게 이름 뒤에 값을 붙인다.
+    public static Member createUniqueMember(String prefix) {
+        return createMember(prefix + "-" + System.nanoTime());
+    }
+
+    public static Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+}
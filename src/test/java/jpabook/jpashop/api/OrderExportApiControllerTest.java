@@ -0,0 +1,102 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.Service.ItemService;
+import jpabook.jpashop.Service.MemberService;
+import jpabook.jpashop.Service.OrderService;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Book;
+import jpabook.jpashop.domain.Member;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createUniqueMember;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 커밋된 데이터를 스트리밍하므로 @Transactional(롤백)을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderExportApiControllerTest {
+
+    @Autowired
+    WebApplicationContext context;
+
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    OrderService orderService;
+
+    @Before
+    public void 주문_생성() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build(); // 다른 테스트와 같은 컨텍스트 (@AutoConfigureMockMvc는 컨텍스트를 새로 띄운다)
+
+        Member member = createUniqueMember("export회원");
+        member.setAddress(new Address("서울", "랄랄로, \"1층\"", "123-123")); // CSV 이스케이프 대상
+        memberService.join(member);
+
+        Book book = createBook("export상품", 10000, 100);
+        itemService.saveItem(book);
+
+        orderService.order(member.getId(), book.getId(), 2);
+    }
+
+    @Test
+    public void ndjson_주문마다_한줄() throws Exception {
+        //when
+        String body = export("ndjson");
+
+        //then
+        long orders = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+        String[] lines = body.split("\n");
+        assertEquals("주문 수만큼 줄이 나와야 한다.", orders, lines.length);
+        assertTrue(lines[0].startsWith("{\"orderId\":"));
+    }
+
+    @Test
+    public void csv_주문상품마다_한줄() throws Exception {
+        //when
+        String body = export("csv");
+
+        //then
+        long rows = em.createQuery("select count(oi) from OrderItem oi", Long.class).getSingleResult();
+        String[] lines = body.split("\n");
+        assertEquals("orderId,name,orderDate,orderStatus,city,street,zipcode,itemName,orderPrice,count", lines[0]);
+        assertEquals("헤더 + 주문상품 수만큼 줄이 나와야 한다.", rows + 1, lines.length);
+        assertTrue("쉼표, 따옴표가 있는 값은 따옴표로 감싼다.", body.contains(",\"랄랄로, \"\"1층\"\"\","));
+    }
+
+    @Test
+    public void 지원하지_않는_형식은_400() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(String format) throws Exception {
+        return mockMvc.perform(get("/api/orders/export").param("format", format))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.domain.*;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createMember;
+import static org.junit.Assert.*;
+
+public class OrderJsonWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // 스프링 부트 기본 설정과 같음
+            .build();
+
+    @Test
+    public void OrderDto와_같은_JSON() throws Exception {
+        //given 이스케이프가 필요한 이름, 초가 0인 주문시간, 주문상품 여러 개
+        List<Order> orders = Arrays.asList(
+                createOrder("홍\"길동\n", LocalDateTime.of(2021, 4, 1, 12, 30), 2),
+                createOrder("김유신", LocalDateTime.of(2021, 4, 2, 9, 0, 0, 123_000_000), 1));
+        orders.get(1).cancel();
+
+        //when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new OrderJsonWriter(objectMapper).write(orders, out);
+        List<OrderApiController.OrderDto> dtos = orders.stream().map(o -> new OrderApiController.OrderDto(o)).collect(toList());
+
+        //then
+        assertEquals("OrderDto를 ObjectMapper로 쓴 결과와 같아야 한다.",
+                objectMapper.readTree(objectMapper.writeValueAsBytes(dtos)), objectMapper.readTree(out.toByteArray()));
+    }
+
+    private Order createOrder(String memberName, LocalDateTime orderDate, int itemCount) {
+        Member member = createMember(memberName);
+
+        OrderItem[] orderItems = new OrderItem[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            Book book = createBook("JPA BOOK" + i, 10000 + i, 10);
+            orderItems[i] = OrderItem.createOrderItem(book, book.getPrice(), i + 1);
+        }
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, orderItems);
+        order.setOrderDate(orderDate);
+        return order;
+    }
+}
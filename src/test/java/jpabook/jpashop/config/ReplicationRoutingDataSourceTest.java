@@ -0,0 +1,81 @@
+package jpabook.jpashop.config;
+
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+/**
+ * 주 DB 1 + 복제 DB 2로 라우팅 확인
+ * 실제 복제는 없으므로 복제 DB도 같은 H2 메모리 DB에 접속하고 (스키마 공유 : 시작 시 조회가 복제 DB로 간다),
+ * 접속 옵션(LOCK_TIMEOUT)만 다르게 해서 어느 DataSource를 탔는지 본다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "jpashop.datasource.primary.jdbc-url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.primary.username=sa",
+        "jpashop.datasource.replicas[0].jdbc-url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10001",
+        "jpashop.datasource.replicas[0].username=sa",
+        "jpashop.datasource.replicas[1].jdbc-url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10002",
+        "jpashop.datasource.replicas[1].username=sa",
+        // 2차 캐시는 JVM에서 공용이므로 다른 DB를 쓰는 이 컨텍스트에서는 끈다.
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"})
+@ActiveProfiles("replication")
+public class ReplicationRoutingDataSourceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 쓰기_트랜잭션은_주DB() throws Exception {
+        //when
+        int dataSource = lockTimeout(false);
+
+        //then
+        assertFalse("쓰기 트랜잭션은 주 DB로 가야 한다. lockTimeout=" + dataSource, isReplica(dataSource));
+    }
+
+    @Test
+    public void 읽기_트랜잭션은_복제DB_라운드로빈() throws Exception {
+        //when
+        int first = lockTimeout(true);
+        int second = lockTimeout(true);
+
+        //then
+        assertTrue("읽기 트랜잭션은 복제 DB로 가야 한다. lockTimeout=" + first, isReplica(first));
+        assertTrue("읽기 트랜잭션은 복제 DB로 가야 한다. lockTimeout=" + second, isReplica(second));
+        assertNotEquals("복제 DB를 번갈아 써야 한다.", first, second);
+    }
+
+    private boolean isReplica(int lockTimeout) {
+        return lockTimeout == 10001 || lockTimeout == 10002;
+    }
+
+    // H2는 getURL()에서 옵션을 빼고 돌려주므로 접속 옵션(LOCK_TIMEOUT)으로 어느 DataSource인지 구분한다.
+    private int lockTimeout(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> em.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("call lock_timeout()")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }));
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.monitoring;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class Log2HistogramTest {
+
+    @Test
+    public void 백분위_근사() throws Exception {
+        //given
+        Log2Histogram histogram = new Log2Histogram();
+
+        //when 1 ~ 100
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        //then
+        assertEquals(100, histogram.count());
+        assertEquals(50.5, histogram.mean(), 0.0001);
+        assertEquals("50은 [32, 63] 구간", 63, histogram.percentile(0.5));
+        assertEquals("상한은 최대값을 넘지 않는다.", 100, histogram.percentile(0.99));
+        assertEquals(100, histogram.max());
+    }
+
+    @Test
+    public void 동시_기록() throws Exception {
+        //given
+        Log2Histogram histogram = new Log2Histogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals("잠금 없이도 기록이 빠지면 안 된다.", 80_000, histogram.count());
+        assertEquals(9_999, histogram.max());
+    }
+}
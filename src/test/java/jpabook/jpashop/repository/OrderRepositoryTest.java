@@ -0,0 +1,261 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.search.MemberNameIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static jpabook.jpashop.TestFixtures.createBook;
+import static jpabook.jpashop.TestFixtures.createMember;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    MemberNameIndex memberNameIndex;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 키셋_페이징() throws Exception {
+        //given 같은 주문시간이 섞여 있는 주문들
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 7; i++) {
+            createOrder("회원" + i, now.plusSeconds(i / 3));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        List<Long> byOffset = ids(orderRepository.findAllWithMemberDelivery(0, 1000));
+
+        List<Long> byCursor = new ArrayList<>();
+        OrderCursor cursor = null;
+        while (true) {
+            List<Order> page = orderRepository.findAllWithMemberDelivery(cursor, 2);
+            if (page.isEmpty()) {
+                break;
+            }
+            byCursor.addAll(ids(page));
+            cursor = OrderCursor.decode(OrderCursor.of(page.get(page.size() - 1)).encode());
+        }
+
+        //then
+        assertEquals("커서로 끝까지 조회하면 offset 전체 조회와 순서까지 같아야 한다.", byOffset, byCursor);
+    }
+
+    @Test
+    public void 회원명_검색() throws Exception {
+        //given 롤백 테스트라 커밋 후 반영이 없으므로 인덱스에 직접 넣는다.
+        Order order = createOrder("검색테스트홍길동", LocalDateTime.now());
+        em.flush();
+        memberNameIndex.put(order.getMember().getId(), order.getMember().getName());
+
+        //when
+        List<Long> contains, prefix, notPrefix, none;
+        try {
+            contains = ids(orderRepository.findAll(search("트홍길", MemberNameMatch.CONTAINS)));
+            prefix = ids(orderRepository.findAll(search("검색테스트", MemberNameMatch.PREFIX)));
+            notPrefix = ids(orderRepository.findAll(search("홍길동", MemberNameMatch.PREFIX)));
+            none = ids(orderRepository.findAll(search("테스트김", MemberNameMatch.CONTAINS)));
+        } finally {
+            memberNameIndex.remove(order.getMember().getId()); // 롤백되는 회원이 공용 인덱스에 남지 않도록
+        }
+
+        //then
+        assertTrue("부분 일치로 찾아야 한다.", contains.contains(order.getId()));
+        assertTrue("앞부분 일치로 찾아야 한다.", prefix.contains(order.getId()));
+        assertFalse("앞부분이 다르면 찾으면 안 된다.", notPrefix.contains(order.getId()));
+        assertFalse("포함되지 않은 이름은 찾으면 안 된다.", none.contains(order.getId()));
+    }
+
+    @Test
+    public void 주문검색_페이징() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            createOrder("페이징회원" + i, LocalDateTime.now());
+        }
+        em.flush();
+        em.clear();
+        OrderSearch orderSearch = search("페이징회원", MemberNameMatch.PREFIX);
+
+        //when
+        Page<Order> first = orderRepository.findAll(orderSearch, PageRequest.of(0, 2));
+        Page<Order> last = orderRepository.findAll(orderSearch, PageRequest.of(2, 2));
+        Page<Order> single = orderRepository.findAll(orderSearch, PageRequest.of(0, 10)); // count 쿼리 생략
+
+        //then
+        assertEquals(2, first.getContent().size());
+        assertEquals("전체 건수", 5, first.getTotalElements());
+        assertEquals("전체 페이지 수", 3, first.getTotalPages());
+        assertEquals(1, last.getContent().size());
+        assertEquals(5, single.getTotalElements());
+    }
+
+    @Test
+    public void 회원명_부분일치_페이징_count_쿼리는_회원_조인_없음() throws Exception {
+        //given
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orders.add(createOrder("카운트테스트" + i, LocalDateTime.now()));
+        }
+        em.flush();
+        orders.forEach(o -> memberNameIndex.put(o.getMember().getId(), o.getMember().getName()));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        //when
+        Page<Order> page;
+        try {
+            page = orderRepository.findAll(search("운트테스", MemberNameMatch.CONTAINS), PageRequest.of(0, 2));
+        } finally {
+            orders.forEach(o -> memberNameIndex.remove(o.getMember().getId()));
+        }
+
+        //then n-gram 인덱스 조건은 orders.member_id로 거르므로 count 쿼리에 member 조인이 없다.
+        assertEquals(3, page.getTotalElements());
+        List<String> countQueries = Arrays.stream(statistics.getQueries())
+                .filter(q -> q.startsWith("select count(") && q.contains(".member.id in"))
+                .collect(toList());
+        assertFalse("count 쿼리가 실행되어야 한다.", countQueries.isEmpty());
+        countQueries.forEach(q -> assertFalse(q, q.contains(" join ")));
+    }
+
+    @Test
+    public void 주문키_페이지_병렬조회() throws Exception {
+        //given 커밋되지 않은 주문 (쓰기 트랜잭션 안이므로 병렬 조회 대신 같은 커넥션에서 순서대로 조회해야 보인다)
+        LocalDateTime now = LocalDateTime.now().plusYears(100); // 기존 데이터보다 뒤에 오도록
+        Order first = createOrder("병렬회원1", now);
+        Order second = createOrder("병렬회원2", now.plusSeconds(1));
+        em.flush();
+        em.clear();
+
+        //when
+        List<OrderCursor> keys = orderQueryRepository.findOrderKeys(new OrderCursor(now.minusSeconds(1), 0L), 10);
+        List<Long> orderIds = keys.stream().map(OrderCursor::getOrderId).collect(toList());
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_parallel(orderIds);
+
+        //then
+        assertEquals("주문일 순서대로 조회해야 한다.", List.of(first.getId(), second.getId()), orderIds);
+        assertEquals(orderIds, result.stream().map(OrderQueryDto::getOrderId).collect(toList()));
+        assertEquals("병렬회원1", result.get(0).getName());
+        assertEquals(1, result.get(0).getOrderItems().size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 주문키_페이지_병렬조회_커밋된_데이터() throws Exception {
+        //given 커밋된 주문 (읽기 전용 트랜잭션에서는 주문 쿼리가 queryExecutor의 다른 커넥션에서 실행된다)
+        String suffix = "-" + System.nanoTime();
+        List<Long> orderIds = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ids.add(createOrder("병렬커밋회원" + i + suffix, LocalDateTime.now()).getId());
+            }
+            return ids;
+        });
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        //when
+        List<OrderQueryDto> parallel = readOnlyTransaction.execute(status -> orderQueryRepository.findAllByDto_parallel(orderIds));
+        List<OrderQueryDto> sequential = readOnlyTransaction.execute(status -> orderQueryRepository.findAllByDto_optimiztion()).stream()
+                .filter(o -> orderIds.contains(o.getOrderId()))
+                .sorted(Comparator.comparing(OrderQueryDto::getOrderId))
+                .collect(toList());
+
+        //then
+        assertEquals(orderIds, parallel.stream().map(OrderQueryDto::getOrderId).collect(toList()));
+        assertEquals("순서대로 조회한 결과와 같아야 한다.", describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void 플랫_데이터_스트리밍() throws Exception {
+        //given
+        Order order = createOrder("스트리밍회원", LocalDateTime.now());
+        createOrder("스트리밍회원2", LocalDateTime.now());
+        em.flush();
+        long rows = em.createQuery("select count(oi) from OrderItem oi", Long.class).getSingleResult();
+
+        //when fetchSize마다 영속성 컨텍스트를 비운다.
+        List<Long> orderIds = new ArrayList<>();
+        orderQueryRepository.streamAllByDto_flat(1, flat -> orderIds.add(flat.getOrderId()));
+
+        //then
+        assertEquals("주문상품 수만큼 row가 나와야 한다.", rows, orderIds.size());
+        assertEquals("주문 id 순이어야 한다.", orderIds.stream().sorted().collect(toList()), orderIds);
+        assertFalse("스트리밍 중 영속성 컨텍스트를 비워야 한다.", em.contains(order));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 잘못된_커서() throws Exception {
+        OrderCursor.decode("not-a-cursor");
+    }
+
+    private OrderSearch search(String memberName, MemberNameMatch match) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        orderSearch.setMemberNameMatch(match);
+        return orderSearch;
+    }
+
+    private List<String> describe(List<OrderQueryDto> orders) {
+        return orders.stream()
+                .map(o -> o.getOrderId() + "," + o.getName() + "," + o.getOrderDate() + "," + o.getOrderStatus() + ","
+                        + o.getAddress().getCity() + "," + o.getAddress().getStreet() + "," + o.getAddress().getZipcode() + ","
+                        + o.getOrderItems())
+                .collect(toList());
+    }
+
+    private List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(toList());
+    }
+
+    private Order createOrder(String memberName, LocalDateTime orderDate) {
+        Member member = createMember(memberName);
+        em.persist(member);
+
+        Book book = createBook("해리포터", 10000, 10);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1));
+        order.setOrderDate(orderDate);
+        em.persist(order);
+        return order;
+    }
+}
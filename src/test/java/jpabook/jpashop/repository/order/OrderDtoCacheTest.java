@@ -0,0 +1,66 @@
+package jpabook.jpashop.repository.order;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class OrderDtoCacheTest {
+
+    OrderDtoCache cache = new OrderDtoCache(100, Duration.ofMinutes(1));
+
+    @Test
+    public void 두번째_조회는_캐시() throws Exception {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when
+        cache.get(OrderDtoCache.ORDERS, () -> load(loads));
+        List<String> result = cache.get(OrderDtoCache.ORDERS, () -> load(loads));
+
+        //then
+        assertEquals("DB 조회는 한 번이어야 한다.", 1, loads.get());
+        assertEquals(Arrays.asList("A", "B"), result);
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void 무효화_후_다시_조회() throws Exception {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(OrderDtoCache.ORDERS, () -> load(loads));
+
+        //when
+        cache.invalidateAfterCommit(); // 트랜잭션 밖이면 바로 비운다.
+        cache.get(OrderDtoCache.ORDERS, () -> load(loads));
+
+        //then
+        assertEquals("무효화 후에는 다시 조회해야 한다.", 2, loads.get());
+    }
+
+    @Test
+    public void 조회_중_무효화되면_캐시하지_않음() throws Exception {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+
+        //when 조회하는 동안 다른 트랜잭션이 커밋
+        cache.get(OrderDtoCache.ORDERS, () -> {
+            cache.invalidateAll();
+            return load(loads);
+        });
+        cache.get(OrderDtoCache.ORDERS, () -> load(loads));
+
+        //then
+        assertEquals("무효화 전에 읽은 결과는 캐시에 남으면 안 된다.", 2, loads.get());
+    }
+
+    private List<String> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return Arrays.asList("A", "B");
+    }
+}
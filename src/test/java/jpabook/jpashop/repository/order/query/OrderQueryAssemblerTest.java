@@ -0,0 +1,42 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderQueryAssemblerTest {
+
+    @Test
+    public void 플랫_데이터_조립() throws Exception {
+        //given order id 순으로 정렬된 row
+        List<OrderFlatDto> flats = Arrays.asList(
+                flat(3L, "JPA1 BOOK"),
+                flat(3L, "JPA2 BOOK"),
+                flat(1L, "SPRING1 BOOK"), // id가 바뀌는 순간 주문 3 완성
+                flat(7L, "SPRING2 BOOK"),
+                flat(7L, "SPRING3 BOOK"));
+
+        //when
+        List<OrderQueryDto> result = OrderQueryAssembler.assemble(flats);
+
+        //then
+        assertEquals("주문 수만큼 조립되어야 한다.", 3, result.size());
+        assertEquals("입력 순서가 유지되어야 한다.", Long.valueOf(3L), result.get(0).getOrderId());
+        assertEquals(Long.valueOf(1L), result.get(1).getOrderId());
+        assertEquals(Long.valueOf(7L), result.get(2).getOrderId());
+        assertEquals(2, result.get(0).getOrderItems().size());
+        assertEquals(1, result.get(1).getOrderItems().size());
+        assertEquals("마지막 주문도 finish에서 내보내야 한다.", "SPRING3 BOOK", result.get(2).getOrderItems().get(1).getItemName());
+    }
+
+    private OrderFlatDto flat(Long orderId, String itemName) {
+        return new OrderFlatDto(orderId, "userA", LocalDateTime.now(), OrderStatus.ORDER,
+                new Address("서울", "32", "1323"), itemName, 10000, 1);
+    }
+}
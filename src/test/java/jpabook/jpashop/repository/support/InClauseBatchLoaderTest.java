@@ -0,0 +1,38 @@
+package jpabook.jpashop.repository.support;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InClauseBatchLoaderTest {
+
+    @Test
+    public void 청크_크기는_2의_거듭제곱() throws Exception {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= InClauseBatchLoader.MAX_CHUNK_SIZE + 3; id++) {
+            ids.add(id);
+        }
+
+        //when
+        List<List<Long>> chunks = InClauseBatchLoader.chunk(ids);
+
+        //then
+        assertEquals(2, chunks.size());
+        assertEquals(InClauseBatchLoader.MAX_CHUNK_SIZE, chunks.get(0).size());
+        assertEquals("3개 남은 청크는 4개로 채워야 한다.", 4, chunks.get(1).size());
+        assertEquals("모자란 자리는 마지막 id로 채운다.", Long.valueOf(InClauseBatchLoader.MAX_CHUNK_SIZE + 3), chunks.get(1).get(3));
+    }
+
+    @Test
+    public void 중복_id_제거() throws Exception {
+        List<List<Long>> chunks = InClauseBatchLoader.chunk(Arrays.asList(1L, 1L, 2L));
+
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(1L, 2L), chunks.get(0));
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.repository.support;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongKeyMapTest {
+
+    @Test
+    public void 확장() throws Exception {
+        LongKeyMap<String> map = new LongKeyMap<>();
+        for (long key = 0; key < 1000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        assertEquals(1000, map.size());
+        assertEquals("v777", map.get(777L));
+        assertNull(map.get(1000L));
+    }
+
+    @Test
+    public void 추가_삭제를_섞어도_HashMap과_같다() throws Exception {
+        //given 좁은 key 범위로 충돌과 삭제 후 당기기가 자주 일어나게 한다.
+        Random random = new Random(42);
+        LongKeyMap<String> map = new LongKeyMap<>();
+        Map<Long, String> expected = new HashMap<>();
+
+        //when
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    public void 없는_key_삭제() throws Exception {
+        LongKeyMap<String> map = new LongKeyMap<>();
+        map.put(1L, "a");
+
+        assertNull(map.remove(2L));
+        assertEquals(1, map.size());
+        assertEquals("a", map.get(1L));
+    }
+}
@@ -0,0 +1,122 @@
+package jpabook.jpashop.repository.support;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * 읽기 전용 트랜잭션에서는 작업 스레드의 별도 트랜잭션으로, 쓰기 트랜잭션에서는 호출한 스레드에서 실행되어야 한다.
+ * 작업 스레드로 넘기지 못하면 호출한 스레드의 트랜잭션에서 그대로 실행한다. (커넥션을 하나 더 쓰지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ReadOnlyQueryExecutorTest {
+
+    @Autowired
+    ReadOnlyQueryExecutor readOnlyQueryExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("queryExecutor")
+    TaskExecutor queryExecutor;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    public void 읽기_전용_트랜잭션에서는_작업_스레드에서_실행() throws Exception {
+        //given
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        String caller = Thread.currentThread().getName();
+
+        //when
+        String[] result = readOnlyTransaction.execute(status -> ReadOnlyQueryExecutor.join(readOnlyQueryExecutor.fork(() ->
+                new String[]{Thread.currentThread().getName(), String.valueOf(TransactionSynchronizationManager.isCurrentTransactionReadOnly())})));
+
+        //then
+        assertNotEquals("다른 스레드에서 실행되어야 한다.", caller, result[0]);
+        assertTrue(result[0].startsWith("query-"));
+        assertEquals("작업 스레드도 읽기 전용 트랜잭션이어야 한다.", "true", result[1]);
+    }
+
+    @Test
+    public void 쓰기_트랜잭션에서는_호출한_스레드에서_실행() throws Exception {
+        String caller = Thread.currentThread().getName();
+
+        String thread = new TransactionTemplate(transactionManager).execute(status ->
+                ReadOnlyQueryExecutor.join(readOnlyQueryExecutor.fork(() -> Thread.currentThread().getName())));
+
+        assertEquals(caller, thread);
+    }
+
+    @Test
+    public void 자리가_없으면_호출한_스레드의_트랜잭션에서_실행() throws Exception {
+        //given 동시에 넘길 수 있는 조회 0개
+        ReadOnlyQueryExecutor noPermits = new ReadOnlyQueryExecutor(queryExecutor, transactionManager, 0);
+
+        //when then 새 트랜잭션(커넥션)을 열지 않고 호출한 스레드에서
+        assertRunsInCallerTransaction(noPermits);
+    }
+
+    @Test
+    public void 스레드풀이_받지_않으면_호출한_스레드의_트랜잭션에서_실행() throws Exception {
+        //given
+        TaskExecutor rejecting = task -> {
+            throw new TaskRejectedException("가득 참");
+        };
+        ReadOnlyQueryExecutor executor = new ReadOnlyQueryExecutor(rejecting, transactionManager, 1);
+
+        //when then 자리를 돌려줘야 다음 조회도 같은 방식으로 실행된다.
+        assertRunsInCallerTransaction(executor);
+        assertRunsInCallerTransaction(executor);
+    }
+
+    private void assertRunsInCallerTransaction(ReadOnlyQueryExecutor executor) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Thread caller = Thread.currentThread();
+            Object callerEntityManager = TransactionSynchronizationManager.getResource(emf);
+
+            Object[] result = ReadOnlyQueryExecutor.join(executor.fork(() ->
+                    new Object[]{Thread.currentThread(), TransactionSynchronizationManager.getResource(emf)}));
+
+            assertSame("호출한 스레드에서 실행되어야 한다.", caller, result[0]);
+            assertSame("호출한 트랜잭션의 EntityManager(커넥션)를 그대로 써야 한다.", callerEntityManager, result[1]);
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 작업_스레드의_예외는_그대로_다시_던진다() throws Exception {
+        //given
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        //when CompletionException으로 감싸지 않고 원래 예외
+        readOnlyTransaction.execute(status -> {
+            CompletableFuture<Object> future = readOnlyQueryExecutor.fork(() -> {
+                throw new IllegalStateException("조회 실패");
+            });
+            return ReadOnlyQueryExecutor.join(future);
+        });
+
+        //then
+        fail("예외가 발생해야한다.");
+    }
+}
@@ -0,0 +1,113 @@
+package jpabook.jpashop.web;
+
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderQueryStatsAdvice;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.beans.propertyeditors.CustomNumberEditor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        // 프로필이 달라 컨텍스트가 따로 뜬다 : 공용 DB 스키마를 다시 만들지 않고, JVM 공용 2차 캐시도 쓰지 않는다.
+        "spring.datasource.url=jdbc:h2:mem:async-api;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "jpashop.api-execution.bulkhead.max-wait=10ms",
+        "jpashop.api-execution.bulkhead.permits[OrderApiController#ordersV4]=0" // 항상 자리가 없는 API
+})
+@AutoConfigureMockMvc
+@Import(AsyncApiHandlerAdapterTest.LimitBinderAdvice.class)
+@ActiveProfiles("async-api")
+public class AsyncApiHandlerAdapterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EndpointBulkhead endpointBulkhead;
+
+    @Test
+    public void 작업_스레드에서_실행_후_결과_디스패치() throws Exception {
+        //given
+        MvcResult started = mockMvc.perform(get("/api/v3.1/orders"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray())
+                .andReturn();
+
+        //then 작업 스레드에서 실행한 쿼리도 요청의 통계에 잡혀 헤더로 나와야 한다.
+        String stats = result.getResponse().getHeader(OrderQueryStatsAdvice.QUERY_STATS_HEADER);
+        assertNotNull("쿼리 통계 헤더가 있어야 한다.", stats);
+        assertFalse("작업 스레드의 쿼리가 집계되어야 한다.", stats.startsWith("statements=0,"));
+    }
+
+    @Test
+    public void 작업_스레드의_예외도_평소처럼_처리() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v3.1/orders").param("cursor", "not-a-cursor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 작업_스레드에서도_InitBinder_적용() throws Exception {
+        //given 천 단위 구분 기호를 허용하는 @ControllerAdvice의 @InitBinder (LimitBinderAdvice)
+        MvcResult started = mockMvc.perform(get("/api/v3.1/orders").param("limit", "1,000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //when then 적용되지 않으면 int 변환 실패로 400
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void bulkhead_자리가_없으면_503() throws Exception {
+        //given
+        long before = endpointBulkhead.rejections("OrderApiController#ordersV4");
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/v4/orders"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(before + 1, endpointBulkhead.rejections("OrderApiController#ordersV4"));
+    }
+
+    @ControllerAdvice(assignableTypes = OrderApiController.class)
+    static class LimitBinderAdvice {
+
+        @InitBinder("limit")
+        public void allowGrouping(WebDataBinder binder) {
+            binder.registerCustomEditor(int.class, new CustomNumberEditor(Integer.class, NumberFormat.getIntegerInstance(Locale.US), false));
+        }
+    }
+}